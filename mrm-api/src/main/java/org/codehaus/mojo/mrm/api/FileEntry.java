@@ -18,6 +18,7 @@ package org.codehaus.mojo.mrm.api;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 
 /**
  * An {@link Entry} that corresponds to a file.
@@ -51,4 +52,16 @@ public interface FileEntry extends Entry {
      * @since 1.7.0
      */
     String getSha1Checksum() throws IOException;
+
+    /**
+     * Returns the regular file that holds exactly the contents of the entry, if there is one. Callers can use this to
+     * serve the content straight from the file system instead of copying it through {@link #getInputStream()}.
+     *
+     * @return the backing file, or <code>null</code> if the contents are not held in a file of their own.
+     * @throws IOException if an I/O error occurs.
+     * @since 2.0.0
+     */
+    default Path getPath() throws IOException {
+        return null;
+    }
 }
@@ -18,6 +18,7 @@ package org.codehaus.mojo.mrm.api.maven;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Set;
 
 import org.apache.maven.archetype.catalog.ArchetypeCatalog;
@@ -173,6 +174,19 @@ public interface ArtifactStore {
      */
     String getSha1Checksum(Artifact artifact) throws IOException, ArtifactNotFoundException;
 
+    /**
+     * Returns the regular file that holds exactly the content of the artifact, if the store keeps one.
+     *
+     * @param artifact the artifact
+     * @return the backing file, or <code>null</code> if the content is not held in a file of its own.
+     * @throws IOException               if the artifact could not be retrieved.
+     * @throws ArtifactNotFoundException if the artifact does not exist.
+     * @since 2.0.0
+     */
+    default Path getPath(Artifact artifact) throws IOException, ArtifactNotFoundException {
+        return null;
+    }
+
     /**
      * Returns the specified metadata.
      *
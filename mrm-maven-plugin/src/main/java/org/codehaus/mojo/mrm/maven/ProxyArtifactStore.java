@@ -19,17 +19,32 @@ package org.codehaus.mojo.mrm.maven;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -38,6 +53,7 @@ import org.apache.maven.archetype.ArchetypeManager;
 import org.apache.maven.archetype.catalog.ArchetypeCatalog;
 import org.apache.maven.artifact.repository.metadata.Metadata;
 import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Reader;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Writer;
 import org.apache.maven.execution.MavenSession;
 import org.codehaus.mojo.mrm.api.ResolverUtils;
 import org.codehaus.mojo.mrm.api.maven.ArchetypeCatalogNotFoundException;
@@ -45,6 +61,7 @@ import org.codehaus.mojo.mrm.api.maven.Artifact;
 import org.codehaus.mojo.mrm.api.maven.ArtifactNotFoundException;
 import org.codehaus.mojo.mrm.api.maven.BaseArtifactStore;
 import org.codehaus.mojo.mrm.api.maven.MetadataNotFoundException;
+import org.codehaus.mojo.mrm.impl.NegativeCache;
 import org.codehaus.mojo.mrm.plugin.FactoryHelper;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.eclipse.aether.RepositorySystem;
@@ -63,14 +80,57 @@ import static java.util.Optional.ofNullable;
  */
 public class ProxyArtifactStore extends BaseArtifactStore {
 
+    /**
+     * How long, by default, a resolved <code>-SNAPSHOT</code> artifact is reused before it is resolved again, in
+     * milliseconds.
+     *
+     * @since 2.0.0
+     */
+    public static final long DEFAULT_SNAPSHOT_CACHE_TTL = 5000L;
+
+    /**
+     * How long, by default, resolved metadata is reused before it is resolved again, in milliseconds.
+     *
+     * @since 2.0.0
+     */
+    public static final long DEFAULT_METADATA_UPDATE_INTERVAL = 60000L;
+
+    /**
+     * How long, by default, an artifact or metadata that could not be resolved is reported missing without asking
+     * the remote repositories again, in milliseconds.
+     *
+     * @since 2.0.0
+     */
+    public static final long DEFAULT_NEGATIVE_CACHE_TTL = 5000L;
+
+    /**
+     * The maximum number of missing artifacts and metadata remembered.
+     */
+    private static final int NEGATIVE_CACHE_SIZE = 10000;
+
+    /**
+     * The maximum number of prefetches waiting for a thread, further prefetches are dropped.
+     */
+    private static final int PREFETCH_QUEUE_SIZE = 256;
+
+    /**
+     * The maximum number of prefetched artifacts remembered until they are asked for.
+     */
+    private static final int PREFETCHED_SIZE = 10000;
+
+    /**
+     * The format of {@link org.apache.maven.artifact.repository.metadata.Versioning#getLastUpdated()}, in UTC.
+     */
+    private static final DateTimeFormatter LAST_UPDATED_FORMAT = DateTimeFormatter.ofPattern("uuuuMMddHHmmss");
+
     private static final Logger LOGGER = LoggerFactory.getLogger(ProxyArtifactStore.class);
 
     private final List<RemoteRepository> remoteRepositories;
 
     /**
-     * A cache of what artifacts are present.
+     * A cache of what artifacts are present, as a tree of the directories of the repository layout.
      */
-    private final Map<String, Map<String, Artifact>> children = new HashMap<>();
+    private final Node children = new Node();
 
     private final RepositorySystem repositorySystem;
 
@@ -78,12 +138,126 @@ public class ProxyArtifactStore extends BaseArtifactStore {
 
     private final ArchetypeManager archetypeManager;
 
+    /**
+     * The artifacts resolved so far, so that serving an artifact costs a single resolution.
+     *
+     * @since 2.0.0
+     */
+    private final Map<Artifact, ResolvedArtifact> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * How long a resolved <code>-SNAPSHOT</code> artifact is reused, in nanoseconds. Releases and timestamped
+     * snapshots never change, so they are reused for as long as their file exists.
+     *
+     * @since 2.0.0
+     */
+    private final long snapshotCacheTtlNanos;
+
+    /**
+     * The artifact resolutions in progress, so that concurrent requests for the same artifact share one resolution.
+     *
+     * @since 2.0.0
+     */
+    private final SingleFlight<Artifact, ResolvedArtifact> artifactResolutions = new SingleFlight<>();
+
+    /**
+     * The metadata resolutions in progress, keyed by path, so that concurrent requests for the same metadata share
+     * one resolution.
+     *
+     * @since 2.0.0
+     */
+    private final SingleFlight<String, ResolvedMetadata> metadataResolutions = new SingleFlight<>();
+
+    /**
+     * The metadata resolved so far, keyed by path.
+     *
+     * @since 2.0.0
+     */
+    private final Map<String, ResolvedMetadata> resolvedMetadata = new ConcurrentHashMap<>();
+
+    /**
+     * How long resolved metadata is reused, in nanoseconds.
+     *
+     * @since 2.0.0
+     */
+    private final long metadataUpdateIntervalNanos;
+
+    /**
+     * The artifacts and metadata that recently could not be resolved.
+     *
+     * @since 2.0.0
+     */
+    private final NegativeCache<Miss> misses;
+
+    /**
+     * How many lookups were answered by {@link #misses} without asking the remote repositories.
+     *
+     * @since 2.0.0
+     */
+    private final AtomicLong negativeCacheHits = new AtomicLong();
+
+    /**
+     * How many lookups were not in {@link #misses} and had to be resolved.
+     *
+     * @since 2.0.0
+     */
+    private final AtomicLong negativeCacheMisses = new AtomicLong();
+
+    /**
+     * Runs the prefetches or <code>null</code> if prefetching is disabled.
+     *
+     * @since 2.0.0
+     */
+    private final ThreadPoolExecutor prefetcher;
+
+    /**
+     * The prefetched artifacts that have not been asked for yet, the oldest are forgotten first.
+     *
+     * @since 2.0.0
+     */
+    private final Set<Artifact> prefetched =
+            Collections.newSetFromMap(Collections.synchronizedMap(new LinkedHashMap<Artifact, Boolean>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Artifact, Boolean> eldest) {
+                    return size() > PREFETCHED_SIZE;
+                }
+            }));
+
+    /**
+     * How many artifacts were prefetched.
+     *
+     * @since 2.0.0
+     */
+    private final AtomicLong prefetches = new AtomicLong();
+
+    /**
+     * How many prefetched artifacts were asked for afterwards.
+     *
+     * @since 2.0.0
+     */
+    private final AtomicLong prefetchHits = new AtomicLong();
+
     /**
      * Creates a new instance.
      *
      * @param factoryHelper injected {@link FactoryHelper} instance
      */
     public ProxyArtifactStore(FactoryHelper factoryHelper) {
+        this(factoryHelper, new Options());
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param factoryHelper injected {@link FactoryHelper} instance
+     * @param options       how long resolutions are reused and whether jars are prefetched
+     * @since 2.0.0
+     */
+    public ProxyArtifactStore(FactoryHelper factoryHelper, Options options) {
+        this.prefetcher = options.getPrefetchThreads() > 0 ? createPrefetcher(options.getPrefetchThreads()) : null;
+        this.misses = new NegativeCache<>(NEGATIVE_CACHE_SIZE, options.getNegativeCacheTtl(), TimeUnit.MILLISECONDS);
+        this.metadataUpdateIntervalNanos = TimeUnit.MILLISECONDS.toNanos(options.getMetadataUpdateInterval());
+        this.snapshotCacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(options.getSnapshotCacheTtl());
         this.repositorySystem = Objects.requireNonNull(factoryHelper.getRepositorySystem());
         this.archetypeManager = Objects.requireNonNull(factoryHelper.getArchetypeManager());
         this.session = Objects.requireNonNull(factoryHelper.getMavenSession());
@@ -95,17 +269,35 @@ public class ProxyArtifactStore extends BaseArtifactStore {
                 .collect(Collectors.toList());
     }
 
+    private static ThreadPoolExecutor createPrefetcher(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                30L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(PREFETCH_QUEUE_SIZE),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "mrm-prefetch-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // a prefetch is only a guess, not worth waiting for when busy
+                new ThreadPoolExecutor.DiscardPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     /**
      * Update the {@link #children} with a resolved artifact.
      *
      * @param artifact the artifact that was resolved.
      */
-    private synchronized void addResolved(Artifact artifact) {
-        String path =
-                artifact.getGroupId().replace('.', '/') + '/' + artifact.getArtifactId() + "/" + artifact.getVersion();
-        Map<String, Artifact> artifactMapper = this.children.computeIfAbsent(path, k -> new HashMap<>());
-        artifactMapper.put(artifact.getName(), artifact);
-        addResolved(path);
+    private void addResolved(Artifact artifact) {
+        Node node = children.getOrAddChild(artifact.getGroupId().replace('.', '/'))
+                .getOrAddChild(artifact.getArtifactId())
+                .getOrAddChild(artifact.getVersion());
+        node.artifacts.put(artifact, Boolean.TRUE);
     }
 
     /**
@@ -113,66 +305,29 @@ public class ProxyArtifactStore extends BaseArtifactStore {
      *
      * @param path the path that was resolved.
      */
-    private synchronized void addResolved(String path) {
-        for (int index = path.lastIndexOf('/'); index > 0; index = path.lastIndexOf('/')) {
-            String name = path.substring(index + 1);
-            path = path.substring(0, index);
-            Map<String, Artifact> artifactMapper = this.children.computeIfAbsent(path, k -> new HashMap<>());
-            artifactMapper.put(name, null);
-        }
-        if (!StringUtils.isEmpty(path)) {
-            Map<String, Artifact> artifactMapper = this.children.computeIfAbsent("", k -> new HashMap<>());
-            artifactMapper.put(path, null);
-        }
+    private void addResolved(String path) {
+        children.getOrAddChild(path);
     }
 
     @Override
-    public synchronized Set<String> getGroupIds(String parentGroupId) {
-        String path = parentGroupId.replace('.', '/');
-        Map<String, Artifact> artifactMapper = this.children.get(path);
-        if (artifactMapper == null) {
-            return Collections.emptySet();
-        }
-        return artifactMapper.entrySet().stream()
-                .filter(entry -> entry.getValue() == null)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toSet());
+    public Set<String> getGroupIds(String parentGroupId) {
+        return children.getChildNames(parentGroupId.replace('.', '/'));
     }
 
     @Override
-    public synchronized Set<String> getArtifactIds(String groupId) {
-        String path = groupId.replace('.', '/');
-        Map<String, Artifact> artifactMapper = this.children.get(path);
-        if (artifactMapper == null) {
-            return Collections.emptySet();
-        }
-        return artifactMapper.entrySet().stream()
-                .filter(entry -> entry.getValue() == null)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toSet());
+    public Set<String> getArtifactIds(String groupId) {
+        return children.getChildNames(groupId.replace('.', '/'));
     }
 
     @Override
-    public synchronized Set<String> getVersions(String groupId, String artifactId) {
-        String path = groupId.replace('.', '/') + '/' + artifactId;
-        Map<String, Artifact> artifactMapper = this.children.get(path);
-        if (artifactMapper == null) {
-            return Collections.emptySet();
-        }
-        return artifactMapper.entrySet().stream()
-                .filter(entry -> entry.getValue() == null)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toSet());
+    public Set<String> getVersions(String groupId, String artifactId) {
+        return children.getChildNames(groupId.replace('.', '/') + '/' + artifactId);
     }
 
     @Override
-    public synchronized Set<Artifact> getArtifacts(String groupId, String artifactId, String version) {
-        String path = groupId.replace('.', '/') + '/' + artifactId + "/" + version;
-        Map<String, Artifact> artifactMapper = this.children.get(path);
-        if (artifactMapper == null) {
-            return Collections.emptySet();
-        }
-        return artifactMapper.values().stream().filter(Objects::nonNull).collect(Collectors.toSet());
+    public Set<Artifact> getArtifacts(String groupId, String artifactId, String version) {
+        Node node = children.get(groupId.replace('.', '/') + '/' + artifactId + '/' + version);
+        return node == null ? Collections.emptySet() : node.artifactsView;
     }
 
     private File resolveArtifactFile(Artifact artifact) throws ArtifactNotFoundException {
@@ -202,24 +357,112 @@ public class ProxyArtifactStore extends BaseArtifactStore {
         }
     }
 
+    /**
+     * Returns the resolved artifact, resolving it only if it has not been resolved yet or, for a
+     * <code>-SNAPSHOT</code>, if the previous resolution is too old.
+     *
+     * @param artifact the artifact.
+     * @return the resolved artifact.
+     * @throws ArtifactNotFoundException if the artifact cannot be resolved.
+     */
+    private ResolvedArtifact resolve(Artifact artifact) throws ArtifactNotFoundException {
+        if (prefetcher != null && prefetched.remove(artifact)) {
+            prefetchHits.incrementAndGet();
+        }
+        ResolvedArtifact result = resolved.get(artifact);
+        if (result == null || result.isExpired()) {
+            Miss miss = new Miss(remoteRepositories, artifact);
+            if (misses.contains(miss)) {
+                negativeCacheHits.incrementAndGet();
+                throw new ArtifactNotFoundException(artifact);
+            }
+            negativeCacheMisses.incrementAndGet();
+            result = artifactResolutions.execute(artifact, () -> {
+                ResolvedArtifact current = resolved.get(artifact);
+                if (current != null && !current.isExpired()) {
+                    // resolved by a call that finished while we were getting here
+                    return current;
+                }
+                File file;
+                try {
+                    file = resolveArtifactFile(artifact);
+                } catch (ArtifactNotFoundException e) {
+                    misses.add(miss);
+                    throw e;
+                }
+                boolean expires = artifact.isSnapshot() && artifact.getTimestamp() == null;
+                current = new ResolvedArtifact(file, expires ? System.nanoTime() + snapshotCacheTtlNanos : null);
+                resolved.put(artifact, current);
+                prefetchSiblings(artifact);
+                return current;
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Resolves the jar of a POM in the background, as a client that asks for a POM usually asks for its jar next.
+     *
+     * @param artifact the artifact that was just resolved.
+     */
+    private void prefetchSiblings(Artifact artifact) {
+        if (prefetcher == null || !"pom".equals(artifact.getType()) || artifact.getClassifier() != null) {
+            return;
+        }
+        Artifact jar = new Artifact(
+                artifact.getGroupId(),
+                artifact.getArtifactId(),
+                artifact.getVersion(),
+                null,
+                "jar",
+                artifact.getTimestamp(),
+                artifact.getBuildNumber());
+        ResolvedArtifact current = resolved.get(jar);
+        if ((current != null && !current.isExpired()) || misses.contains(new Miss(remoteRepositories, jar))) {
+            return;
+        }
+        prefetcher.execute(() -> {
+            try {
+                resolve(jar);
+                prefetched.add(jar);
+                prefetches.incrementAndGet();
+            } catch (ArtifactNotFoundException e) {
+                // not every POM has a jar
+            } catch (RuntimeException e) {
+                LOGGER.debug("Failed to prefetch {}", jar, e);
+            }
+        });
+    }
+
     @Override
     public long getLastModified(Artifact artifact) throws ArtifactNotFoundException {
-        return resolveArtifactFile(artifact).lastModified();
+        return resolve(artifact).lastModified;
     }
 
     @Override
     public long getSize(Artifact artifact) throws ArtifactNotFoundException {
-        return resolveArtifactFile(artifact).length();
+        return resolve(artifact).size;
     }
 
     @Override
     public InputStream get(Artifact artifact) throws IOException, ArtifactNotFoundException {
-        return Files.newInputStream(resolveArtifactFile(artifact).toPath());
+        try {
+            return Files.newInputStream(resolve(artifact).file.toPath());
+        } catch (NoSuchFileException e) {
+            // removed from the local repository since we resolved it
+            resolved.remove(artifact);
+            return Files.newInputStream(resolve(artifact).file.toPath());
+        }
+    }
+
+    @Override
+    public Path getPath(Artifact artifact) throws ArtifactNotFoundException {
+        return resolve(artifact).file.toPath();
     }
 
     @Override
     public String getSha1Checksum(Artifact artifact) throws IOException, ArtifactNotFoundException {
-        File sha1File = new File(resolveArtifactFile(artifact).getPath() + ".sha1");
+        File sha1File = new File(resolve(artifact).file.getPath() + ".sha1");
         if (sha1File.isFile()) {
             return new String(Files.readAllBytes(sha1File.toPath()), StandardCharsets.US_ASCII);
         } else {
@@ -234,6 +477,97 @@ public class ProxyArtifactStore extends BaseArtifactStore {
 
     @Override
     public Metadata getMetadata(String path) throws MetadataNotFoundException {
+        // callers may merge into the result, so each gets its own copy of the shared metadata
+        return resolveCachedMetadata(path).metadata.clone();
+    }
+
+    /**
+     * Returns the resolved metadata, resolving it only if it has not been resolved yet or if the previous resolution
+     * is older than the update interval.
+     *
+     * @param path the path of the metadata.
+     * @return the resolved metadata.
+     * @throws MetadataNotFoundException if no repository has the metadata.
+     */
+    private ResolvedMetadata resolveCachedMetadata(String path) throws MetadataNotFoundException {
+        String key = StringUtils.strip(path, "/");
+        ResolvedMetadata result = resolvedMetadata.get(key);
+        if (result == null || result.isExpired()) {
+            Miss miss = new Miss(remoteRepositories, key);
+            if (misses.contains(miss)) {
+                negativeCacheHits.incrementAndGet();
+                throw new MetadataNotFoundException(path);
+            }
+            negativeCacheMisses.incrementAndGet();
+            result = metadataResolutions.execute(key, () -> {
+                ResolvedMetadata previous = resolvedMetadata.get(key);
+                if (previous != null && !previous.isExpired()) {
+                    // resolved by a call that finished while we were getting here
+                    return previous;
+                }
+                Metadata metadata;
+                try {
+                    metadata = resolveMetadata(path);
+                } catch (MetadataNotFoundException e) {
+                    resolvedMetadata.remove(key);
+                    misses.add(miss);
+                    throw e;
+                }
+                ResolvedMetadata current = new ResolvedMetadata(
+                        metadata, getLastModified(metadata, previous), System.nanoTime() + metadataUpdateIntervalNanos);
+                resolvedMetadata.put(key, current);
+                return current;
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Returns a last modified time for the metadata that does not change until the metadata does: its last update
+     * time if it has one, otherwise the time it was first seen with its current content.
+     *
+     * @param metadata the metadata.
+     * @param previous the previous resolution of the metadata or <code>null</code>.
+     * @return the last modified time of the metadata.
+     */
+    private static long getLastModified(Metadata metadata, ResolvedMetadata previous) {
+        String lastUpdated = metadata.getVersioning() == null
+                ? null
+                : metadata.getVersioning().getLastUpdated();
+        if (StringUtils.isNotEmpty(lastUpdated)) {
+            try {
+                return LocalDateTime.parse(lastUpdated, LAST_UPDATED_FORMAT)
+                        .toInstant(ZoneOffset.UTC)
+                        .toEpochMilli();
+            } catch (DateTimeParseException e) {
+                LOGGER.debug("Ignoring malformed lastUpdated {}", lastUpdated);
+            }
+        }
+        if (previous != null && toXml(previous.metadata).equals(toXml(metadata))) {
+            return previous.lastModified;
+        }
+        return System.currentTimeMillis();
+    }
+
+    private static String toXml(Metadata metadata) {
+        StringWriter writer = new StringWriter();
+        try {
+            new MetadataXpp3Writer().write(writer, metadata);
+        } catch (IOException e) {
+            // cannot happen when writing to a string
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Resolves the metadata from the remote repositories.
+     *
+     * @param path the path of the metadata.
+     * @return the metadata merged from all the repositories that have it.
+     * @throws MetadataNotFoundException if no repository has the metadata.
+     */
+    private Metadata resolveMetadata(String path) throws MetadataNotFoundException {
         LinkedList<String> pathItems =
                 new LinkedList<>(Arrays.asList(StringUtils.strip(path, "/").split("/")));
 
@@ -308,7 +642,8 @@ public class ProxyArtifactStore extends BaseArtifactStore {
 
     @Override
     public long getMetadataLastModified(String path) throws MetadataNotFoundException {
-        Metadata metadata = getMetadata(path);
+        ResolvedMetadata resolved = resolveCachedMetadata(path);
+        Metadata metadata = resolved.metadata;
         if (metadata != null) {
             if (!StringUtils.isEmpty(metadata.getGroupId())
                     || !StringUtils.isEmpty(metadata.getArtifactId())
@@ -325,12 +660,64 @@ public class ProxyArtifactStore extends BaseArtifactStore {
                                                     .getVersions()
                                                     .isEmpty())
                                     || (metadata.getVersioning().getSnapshot() != null)))) {
-                return System.currentTimeMillis();
+                return resolved.lastModified;
             }
         }
         throw new MetadataNotFoundException(path);
     }
 
+    /**
+     * Returns how many lookups of artifacts or metadata were reported missing from the negative cache, without asking
+     * the remote repositories.
+     *
+     * @return the number of negative cache hits.
+     * @since 2.0.0
+     */
+    public long getNegativeCacheHits() {
+        return negativeCacheHits.get();
+    }
+
+    /**
+     * Returns how many lookups of artifacts or metadata were not in the negative cache and had to be resolved.
+     *
+     * @return the number of negative cache misses.
+     * @since 2.0.0
+     */
+    public long getNegativeCacheMisses() {
+        return negativeCacheMisses.get();
+    }
+
+    /**
+     * Returns how many artifacts were prefetched.
+     *
+     * @return the number of prefetched artifacts.
+     * @since 2.0.0
+     */
+    public long getPrefetches() {
+        return prefetches.get();
+    }
+
+    /**
+     * Returns how many prefetched artifacts were asked for afterwards.
+     *
+     * @return the number of prefetch hits.
+     * @since 2.0.0
+     */
+    public long getPrefetchHits() {
+        return prefetchHits.get();
+    }
+
+    /**
+     * Returns the share of the prefetched artifacts that were asked for afterwards.
+     *
+     * @return the prefetch hit ratio, between <code>0</code> and <code>1</code>.
+     * @since 2.0.0
+     */
+    public double getPrefetchHitRatio() {
+        long count = prefetches.get();
+        return count == 0 ? 0.0 : Math.min(1.0, (double) prefetchHits.get() / count);
+    }
+
     @Override
     public ArchetypeCatalog getArchetypeCatalog() {
         return archetypeManager.getLocalCatalog(session.getRepositorySession());
@@ -344,4 +731,250 @@ public class ProxyArtifactStore extends BaseArtifactStore {
             throw new ArchetypeCatalogNotFoundException();
         }
     }
+
+    /**
+     * The file and attributes of a resolved artifact.
+     *
+     * @since 2.0.0
+     */
+    private static final class ResolvedArtifact {
+
+        private final File file;
+
+        private final long lastModified;
+
+        private final long size;
+
+        /**
+         * When (as per {@link System#nanoTime()}) the artifact must be resolved again or <code>null</code> if never.
+         */
+        private final Long expiry;
+
+        private ResolvedArtifact(File file, Long expiry) {
+            this.file = file;
+            this.lastModified = file.lastModified();
+            this.size = file.length();
+            this.expiry = expiry;
+        }
+
+        private boolean isExpired() {
+            return expiry != null && expiry - System.nanoTime() <= 0;
+        }
+    }
+
+    /**
+     * The key of an artifact or metadata path that the given remote repositories do not have.
+     *
+     * @since 2.0.0
+     */
+    private static final class Miss {
+
+        private final List<RemoteRepository> repositories;
+
+        private final Object coordinate;
+
+        private Miss(List<RemoteRepository> repositories, Object coordinate) {
+            this.repositories = repositories;
+            this.coordinate = coordinate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Miss)) {
+                return false;
+            }
+            Miss miss = (Miss) o;
+            return repositories.equals(miss.repositories) && coordinate.equals(miss.coordinate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(repositories, coordinate);
+        }
+    }
+
+    /**
+     * A directory of the repository layout. Directories are only ever added, so that a lookup needs no locking and a
+     * listing is a live read-only view rather than a copy.
+     *
+     * @since 2.0.0
+     */
+    private static final class Node {
+
+        private final ConcurrentMap<String, Node> children = new ConcurrentHashMap<>();
+
+        private final Set<String> childNames = Collections.unmodifiableSet(children.keySet());
+
+        private final ConcurrentMap<Artifact, Boolean> artifacts = new ConcurrentHashMap<>();
+
+        private final Set<Artifact> artifactsView = Collections.unmodifiableSet(artifacts.keySet());
+
+        /**
+         * Returns the descendant at the specified path, adding the missing directories.
+         *
+         * @param path the <code>/</code> separated path.
+         * @return the descendant.
+         */
+        private Node getOrAddChild(String path) {
+            Node node = this;
+            for (String name : StringUtils.split(path, '/')) {
+                Node child = node.children.get(name);
+                node = child != null ? child : node.children.computeIfAbsent(name, k -> new Node());
+            }
+            return node;
+        }
+
+        /**
+         * Returns the descendant at the specified path.
+         *
+         * @param path the <code>/</code> separated path.
+         * @return the descendant or <code>null</code> if there is none.
+         */
+        private Node get(String path) {
+            Node node = this;
+            for (String name : StringUtils.split(path, '/')) {
+                node = node.children.get(name);
+                if (node == null) {
+                    return null;
+                }
+            }
+            return node;
+        }
+
+        /**
+         * Returns the names of the directories in the descendant at the specified path.
+         *
+         * @param path the <code>/</code> separated path.
+         * @return the names of the directories.
+         */
+        private Set<String> getChildNames(String path) {
+            Node node = get(path);
+            return node == null ? Collections.emptySet() : node.childNames;
+        }
+    }
+
+    /**
+     * Resolved metadata and its stable last modified time.
+     *
+     * @since 2.0.0
+     */
+    private static final class ResolvedMetadata {
+
+        private final Metadata metadata;
+
+        private final long lastModified;
+
+        /**
+         * When (as per {@link System#nanoTime()}) the metadata must be resolved again.
+         */
+        private final long expiry;
+
+        private ResolvedMetadata(Metadata metadata, long lastModified, long expiry) {
+            this.metadata = metadata;
+            this.lastModified = lastModified;
+            this.expiry = expiry;
+        }
+
+        private boolean isExpired() {
+            return expiry - System.nanoTime() <= 0;
+        }
+    }
+
+    /**
+     * How long a {@link ProxyArtifactStore} reuses what it resolved, and whether it prefetches jars.
+     *
+     * @since 2.0.0
+     */
+    public static final class Options {
+
+        private long snapshotCacheTtl = DEFAULT_SNAPSHOT_CACHE_TTL;
+
+        private long metadataUpdateInterval = DEFAULT_METADATA_UPDATE_INTERVAL;
+
+        private long negativeCacheTtl = DEFAULT_NEGATIVE_CACHE_TTL;
+
+        private int prefetchThreads;
+
+        /**
+         * @return how long a resolved <code>-SNAPSHOT</code> artifact is reused, in milliseconds.
+         * @since 2.0.0
+         */
+        public long getSnapshotCacheTtl() {
+            return snapshotCacheTtl;
+        }
+
+        /**
+         * @param snapshotCacheTtl how long a resolved <code>-SNAPSHOT</code> artifact is reused before it is resolved
+         *                         again, in milliseconds. Defaults to
+         *                         {@link ProxyArtifactStore#DEFAULT_SNAPSHOT_CACHE_TTL}.
+         * @return these options.
+         * @since 2.0.0
+         */
+        public Options setSnapshotCacheTtl(long snapshotCacheTtl) {
+            this.snapshotCacheTtl = snapshotCacheTtl;
+            return this;
+        }
+
+        /**
+         * @return how long resolved metadata is reused, in milliseconds.
+         * @since 2.0.0
+         */
+        public long getMetadataUpdateInterval() {
+            return metadataUpdateInterval;
+        }
+
+        /**
+         * @param metadataUpdateInterval how long resolved metadata is reused before it is resolved again, in
+         *                               milliseconds. Defaults to
+         *                               {@link ProxyArtifactStore#DEFAULT_METADATA_UPDATE_INTERVAL}.
+         * @return these options.
+         * @since 2.0.0
+         */
+        public Options setMetadataUpdateInterval(long metadataUpdateInterval) {
+            this.metadataUpdateInterval = metadataUpdateInterval;
+            return this;
+        }
+
+        /**
+         * @return how long an artifact or metadata that could not be resolved is reported missing, in milliseconds.
+         * @since 2.0.0
+         */
+        public long getNegativeCacheTtl() {
+            return negativeCacheTtl;
+        }
+
+        /**
+         * @param negativeCacheTtl how long an artifact or metadata that could not be resolved is reported missing
+         *                         without asking the remote repositories again, in milliseconds, or <code>0</code>
+         *                         to always ask. Defaults to {@link ProxyArtifactStore#DEFAULT_NEGATIVE_CACHE_TTL}.
+         * @return these options.
+         * @since 2.0.0
+         */
+        public Options setNegativeCacheTtl(long negativeCacheTtl) {
+            this.negativeCacheTtl = negativeCacheTtl;
+            return this;
+        }
+
+        /**
+         * @return how many threads resolve the jar of a POM in the background.
+         * @since 2.0.0
+         */
+        public int getPrefetchThreads() {
+            return prefetchThreads;
+        }
+
+        /**
+         * @param prefetchThreads how many threads resolve the jar of a POM in the background once the POM was
+         *                        resolved, or <code>0</code> to not prefetch. Defaults to <code>0</code>.
+         * @return these options.
+         * @since 2.0.0
+         */
+        public Options setPrefetchThreads(int prefetchThreads) {
+            this.prefetchThreads = prefetchThreads;
+            return this;
+        }
+    }
 }
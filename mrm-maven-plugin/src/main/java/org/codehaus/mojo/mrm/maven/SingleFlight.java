@@ -0,0 +1,89 @@
+package org.codehaus.mojo.mrm.maven;
+
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller performs the call while the others wait for, and
+ * share, its outcome.
+ *
+ * @param <K> the type of key.
+ * @param <V> the type of result.
+ * @since 2.0.0
+ */
+final class SingleFlight<K, V> {
+
+    /**
+     * The calls in progress.
+     */
+    private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * Performs the call unless a call for the same key is already in progress, in which case that call's outcome is
+     * returned (or thrown) instead.
+     *
+     * @param key  the key.
+     * @param call the call.
+     * @param <E>  the type of checked exception the call throws.
+     * @return the result of the call.
+     * @throws E if the call failed.
+     */
+    @SuppressWarnings("unchecked")
+    <E extends Exception> V execute(K key, Call<V, E> call) throws E {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = calls.putIfAbsent(key, flight);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw (E) cause;
+            }
+        }
+        try {
+            V result = call.call();
+            flight.complete(result);
+            return result;
+        } catch (Exception | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, flight);
+        }
+    }
+
+    /**
+     * A call that may be coalesced.
+     *
+     * @param <V> the type of result.
+     * @param <E> the type of checked exception.
+     */
+    @FunctionalInterface
+    interface Call<V, E extends Exception> {
+        V call() throws E;
+    }
+}
@@ -16,8 +16,14 @@ package org.codehaus.mojo.mrm.plugin;
  * limitations under the License.
  */
 
+import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.maven.artifact.ArtifactUtils;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -68,6 +74,8 @@ public abstract class AbstractStartMojo extends AbstractMRMMojo {
      * <li><b>localRepo</b> - Local repository serving content from a standard Maven repository layout</li>
      * <li><b>proxyRepo</b> - Proxy repository forwarding requests to the current Maven session's repositories</li>
      * <li><b>hostedRepo</b> - Hosted repository accepting uploaded artifacts (writable)</li>
+     * <li><b>httpProxyRepo</b> - Proxy repository fetching remote repositories directly over HTTP into a cache
+     * directory</li>
      * </ul>
      * <p>
      * For detailed documentation including parameters and examples for each repository type,
@@ -88,6 +96,28 @@ public abstract class AbstractStartMojo extends AbstractMRMMojo {
     @Parameter(property = "mrm.debugServer", defaultValue = "false")
     private boolean debugServer;
 
+    /**
+     * When more than one repository is specified, look artifacts up in all of them concurrently instead of one
+     * after the other. The repositories keep their precedence: an artifact is always served from the first
+     * repository that has it, the lookups in the following repositories are cancelled once that is known.
+     * This helps when a slow repository (e.g. a <b>proxyRepo</b>) is listed before fast ones.
+     *
+     * @since 2.0.0
+     */
+    @Parameter(property = "mrm.parallelLookups", defaultValue = "false")
+    private boolean parallelLookups;
+
+    /**
+     * When more than one repository is specified, how long, in milliseconds, a repository that does not have an
+     * artifact is not asked for it again, so that lookups go straight to the repository that has it. Set it to
+     * {@code 0} to ask every repository on every request, e.g. when artifacts are added while the repository is
+     * served.
+     *
+     * @since 2.0.0
+     */
+    @Parameter(property = "mrm.negativeCacheTtl", defaultValue = "5000")
+    private long negativeCacheTtl;
+
     /**
      * Creates a new instance
      * @param factoryHelper injected {@link FactoryHelper} instance
@@ -97,18 +127,23 @@ public abstract class AbstractStartMojo extends AbstractMRMMojo {
     }
 
     /**
-     * Creates a file system server from an artifact store.
+     * Creates a file system server from an artifact store. An artifact store that holds resources is closed once the
+     * server has shut down.
      *
      * @param artifactStore the artifact store to serve.
      * @return the file system server.
      */
     protected FileSystemServer createFileSystemServer(ArtifactStore artifactStore) {
-        return new FileSystemServer(
+        FileSystemServer server = new FileSystemServer(
                 ArtifactUtils.versionlessKey(project.getGroupId(), project.getArtifactId()),
                 Math.max(0, Math.min(port, 65535)),
                 basePath,
                 new AutoDigestFileSystem(new ArtifactStoreFileSystem(artifactStore)),
                 debugServer);
+        if (artifactStore instanceof Closeable) {
+            server.closeOnFinish((Closeable) artifactStore);
+        }
+        return server;
     }
 
     /**
@@ -131,6 +166,32 @@ public abstract class AbstractStartMojo extends AbstractMRMMojo {
         }
 
         ArtifactStore[] artifactStores = stores.toArray(new ArtifactStore[0]);
-        return artifactStores.length == 1 ? artifactStores[0] : new CompositeArtifactStore(artifactStores);
+        if (artifactStores.length == 1) {
+            return artifactStores[0];
+        }
+        return new CompositeArtifactStore(
+                artifactStores, parallelLookups ? createLookupExecutor() : null, Math.max(0L, negativeCacheTtl));
+    }
+
+    /**
+     * Creates the executor for concurrent lookups. It is bounded, its threads are daemons that go away when idle,
+     * and when it is saturated the requesting thread does the lookup itself.
+     *
+     * @return the executor.
+     */
+    private static Executor createLookupExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                0,
+                Math.max(4, Runtime.getRuntime().availableProcessors() * 4),
+                30,
+                TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "mrm-lookup-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
     }
 }
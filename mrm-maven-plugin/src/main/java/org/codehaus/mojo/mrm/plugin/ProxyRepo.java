@@ -28,9 +28,44 @@ import org.codehaus.mojo.mrm.maven.ProxyArtifactStore;
  */
 public class ProxyRepo implements ArtifactStoreFactory {
 
+    /**
+     * How long a resolved <code>-SNAPSHOT</code> artifact is reused before it is resolved again, in milliseconds.
+     *
+     * @since 2.0.0
+     */
+    private long snapshotCacheTtl = ProxyArtifactStore.DEFAULT_SNAPSHOT_CACHE_TTL;
+
+    /**
+     * How long resolved metadata is reused before it is resolved again, in milliseconds.
+     *
+     * @since 2.0.0
+     */
+    private long metadataUpdateInterval = ProxyArtifactStore.DEFAULT_METADATA_UPDATE_INTERVAL;
+
+    /**
+     * How long an artifact or metadata that could not be resolved is reported missing without asking the remote
+     * repositories again, in milliseconds.
+     *
+     * @since 2.0.0
+     */
+    private long negativeCacheTtl = ProxyArtifactStore.DEFAULT_NEGATIVE_CACHE_TTL;
+
+    /**
+     * How many threads resolve the jar of a POM in the background once the POM was resolved, <code>0</code> to not
+     * prefetch.
+     *
+     * @since 2.0.0
+     */
+    private int prefetchThreads;
+
     @Override
     public ArtifactStore newInstance(FactoryHelper factoryHelper) {
-        return new ProxyArtifactStore(Objects.requireNonNull(factoryHelper, "FactoryHelper has not been set"));
+        ProxyArtifactStore.Options options = new ProxyArtifactStore.Options()
+                .setSnapshotCacheTtl(snapshotCacheTtl)
+                .setMetadataUpdateInterval(metadataUpdateInterval)
+                .setNegativeCacheTtl(negativeCacheTtl)
+                .setPrefetchThreads(prefetchThreads);
+        return new ProxyArtifactStore(Objects.requireNonNull(factoryHelper, "FactoryHelper has not been set"), options);
     }
 
     @Override
@@ -19,25 +19,49 @@ package org.codehaus.mojo.mrm.maven;
  * under the License.
  */
 
+import java.io.File;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.maven.archetype.ArchetypeManager;
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.Versioning;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Writer;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.mojo.mrm.api.maven.Artifact;
 import org.codehaus.mojo.mrm.api.maven.ArtifactNotFoundException;
+import org.codehaus.mojo.mrm.api.maven.MetadataNotFoundException;
 import org.codehaus.mojo.mrm.plugin.FactoryHelper;
 import org.eclipse.aether.DefaultRepositorySystemSession;
 import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.metadata.DefaultMetadata;
+import org.eclipse.aether.metadata.Metadata.Nature;
+import org.eclipse.aether.resolution.ArtifactRequest;
 import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.resolution.MetadataRequest;
+import org.eclipse.aether.resolution.MetadataResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ProxyArtifactStoreTest {
@@ -101,4 +125,266 @@ class ProxyArtifactStoreTest {
         RuntimeException exception = assertThrowsExactly(RuntimeException.class, store::getArchetypeCatalog);
         assertEquals("test123", exception.getMessage());
     }
+
+    @Test
+    void releaseIsResolvedOnce(@TempDir Path dir) throws Exception {
+        RepositorySystem repositorySystem = givenResolvedTo(Files.write(dir.resolve("test-1.0.pom"), new byte[3]));
+        ProxyArtifactStore store = new ProxyArtifactStore(givenFactoryHelper(repositorySystem));
+        Artifact artifact = new Artifact("localhost", "test", "1.0", "pom");
+
+        assertEquals(3L, store.getSize(artifact));
+        store.getLastModified(artifact);
+        try (InputStream is = store.get(artifact)) {
+            assertEquals(3, is.readAllBytes().length);
+        }
+        store.getSha1Checksum(artifact);
+
+        verify(repositorySystem, times(1)).resolveArtifact(any(), any());
+    }
+
+    @Test
+    void snapshotIsResolvedAgainOnceExpired(@TempDir Path dir) throws Exception {
+        RepositorySystem repositorySystem =
+                givenResolvedTo(Files.write(dir.resolve("test-1.0-SNAPSHOT.pom"), new byte[3]));
+        ProxyArtifactStore store = new ProxyArtifactStore(
+                givenFactoryHelper(repositorySystem), new ProxyArtifactStore.Options().setSnapshotCacheTtl(0));
+        Artifact artifact = new Artifact("localhost", "test", "1.0-SNAPSHOT", "pom");
+
+        store.getSize(artifact);
+        store.getSize(artifact);
+
+        verify(repositorySystem, times(2)).resolveArtifact(any(), any());
+    }
+
+    @Test
+    void concurrentResolutionsAreCoalesced(@TempDir Path dir) throws Exception {
+        File file = Files.write(dir.resolve("test-1.0.pom"), new byte[3]).toFile();
+        CountDownLatch release = new CountDownLatch(1);
+        RepositorySystem repositorySystem = mock(RepositorySystem.class);
+        when(repositorySystem.resolveArtifact(any(), any())).thenAnswer(invocation -> {
+            release.await();
+            ArtifactRequest request = invocation.getArgument(1);
+            return new ArtifactResult(request).setArtifact(request.getArtifact().setFile(file));
+        });
+        ProxyArtifactStore store = new ProxyArtifactStore(givenFactoryHelper(repositorySystem));
+        Artifact artifact = new Artifact("localhost", "test", "1.0", "pom");
+
+        List<Thread> threads = new ArrayList<>();
+        AtomicInteger resolved = new AtomicInteger();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    if (store.getSize(artifact) == 3L) {
+                        resolved.incrementAndGet();
+                    }
+                } catch (ArtifactNotFoundException e) {
+                    // counted as not resolved
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        // every thread is either resolving or waiting for the resolution in progress
+        for (Thread thread : threads) {
+            while (thread.getState() != Thread.State.WAITING) {
+                Thread.yield();
+            }
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(8, resolved.get());
+        verify(repositorySystem, times(1)).resolveArtifact(any(), any());
+    }
+
+    @Test
+    void concurrentFailuresAreShared() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RepositorySystem repositorySystem = mock(RepositorySystem.class);
+        when(repositorySystem.resolveArtifact(any(), any())).thenAnswer(invocation -> {
+            release.await();
+            throw new ArtifactResolutionException(Collections.emptyList());
+        });
+        ProxyArtifactStore store = new ProxyArtifactStore(givenFactoryHelper(repositorySystem));
+        Artifact artifact = new Artifact("localhost", "test", "1.0", "pom");
+
+        List<Thread> threads = new ArrayList<>();
+        AtomicInteger failed = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    store.getSize(artifact);
+                } catch (ArtifactNotFoundException e) {
+                    failed.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            while (thread.getState() != Thread.State.WAITING) {
+                Thread.yield();
+            }
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(4, failed.get());
+        verify(repositorySystem, times(1)).resolveArtifact(any(), any());
+    }
+
+    @Test
+    void metadataIsReusedWithinUpdateInterval(@TempDir Path dir) throws Exception {
+        RepositorySystem repositorySystem = givenMetadata(dir, "20240102030405");
+        ProxyArtifactStore store = new ProxyArtifactStore(
+                givenFactoryHelper(repositorySystem),
+                new ProxyArtifactStore.Options().setMetadataUpdateInterval(60000L));
+
+        long lastModified = store.getMetadataLastModified("/localhost/test/maven-metadata.xml");
+        store.getMetadata("/localhost/test/maven-metadata.xml");
+        store.getMetadata("localhost/test/maven-metadata.xml");
+
+        assertEquals(1704164645000L, lastModified);
+        verify(repositorySystem, times(1)).resolveMetadata(any(), any());
+    }
+
+    @Test
+    void metadataLastModifiedIsStableAcrossResolutions(@TempDir Path dir) throws Exception {
+        RepositorySystem repositorySystem = givenMetadata(dir, null);
+        ProxyArtifactStore store = new ProxyArtifactStore(
+                givenFactoryHelper(repositorySystem), new ProxyArtifactStore.Options().setMetadataUpdateInterval(0L));
+
+        long lastModified = store.getMetadataLastModified("/localhost/test/maven-metadata.xml");
+        Thread.sleep(5);
+
+        assertEquals(lastModified, store.getMetadataLastModified("/localhost/test/maven-metadata.xml"));
+        verify(repositorySystem, times(2)).resolveMetadata(any(), any());
+    }
+
+    @Test
+    void missesAreRememberedWithinTtl() throws Exception {
+        RepositorySystem repositorySystem = mock(RepositorySystem.class);
+        doThrow(ArtifactResolutionException.class).when(repositorySystem).resolveArtifact(any(), any());
+        when(repositorySystem.resolveMetadata(any(), any())).thenReturn(Collections.emptyList());
+        ProxyArtifactStore store = new ProxyArtifactStore(
+                givenFactoryHelper(repositorySystem), new ProxyArtifactStore.Options().setNegativeCacheTtl(60000L));
+        Artifact artifact = new Artifact("localhost", "test", "1.0", "sources", "jar");
+
+        for (int i = 0; i < 3; i++) {
+            assertThrowsExactly(ArtifactNotFoundException.class, () -> store.get(artifact));
+            assertThrowsExactly(
+                    MetadataNotFoundException.class, () -> store.getMetadata("/localhost/test/maven-metadata.xml"));
+        }
+
+        verify(repositorySystem, times(1)).resolveArtifact(any(), any());
+        verify(repositorySystem, times(1)).resolveMetadata(any(), any());
+        assertEquals(4L, store.getNegativeCacheHits());
+        assertEquals(2L, store.getNegativeCacheMisses());
+    }
+
+    @Test
+    void missesAreNotRememberedWithoutTtl() throws Exception {
+        RepositorySystem repositorySystem = mock(RepositorySystem.class);
+        doThrow(ArtifactResolutionException.class).when(repositorySystem).resolveArtifact(any(), any());
+        ProxyArtifactStore store = new ProxyArtifactStore(
+                givenFactoryHelper(repositorySystem), new ProxyArtifactStore.Options().setNegativeCacheTtl(0L));
+        Artifact artifact = new Artifact("localhost", "test", "1.0", "sources", "jar");
+
+        assertThrowsExactly(ArtifactNotFoundException.class, () -> store.get(artifact));
+        assertThrowsExactly(ArtifactNotFoundException.class, () -> store.get(artifact));
+
+        verify(repositorySystem, times(2)).resolveArtifact(any(), any());
+        assertEquals(0L, store.getNegativeCacheHits());
+    }
+
+    @Test
+    void jarIsPrefetchedWithPom(@TempDir Path dir) throws Exception {
+        RepositorySystem repositorySystem = givenResolvedTo(Files.write(dir.resolve("test-1.0.pom"), new byte[3]));
+        ProxyArtifactStore store = new ProxyArtifactStore(
+                givenFactoryHelper(repositorySystem), new ProxyArtifactStore.Options().setPrefetchThreads(1));
+
+        store.getSize(new Artifact("localhost", "test", "1.0", "pom"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (store.getPrefetches() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        store.getSize(new Artifact("localhost", "test", "1.0", "jar"));
+
+        verify(repositorySystem, times(2)).resolveArtifact(any(), any());
+        assertEquals(1L, store.getPrefetches());
+        assertEquals(1L, store.getPrefetchHits());
+        assertEquals(1.0, store.getPrefetchHitRatio());
+    }
+
+    @Test
+    void nothingIsPrefetchedByDefault(@TempDir Path dir) throws Exception {
+        RepositorySystem repositorySystem = givenResolvedTo(Files.write(dir.resolve("test-1.0.pom"), new byte[3]));
+        ProxyArtifactStore store = new ProxyArtifactStore(givenFactoryHelper(repositorySystem));
+
+        store.getSize(new Artifact("localhost", "test", "1.0", "pom"));
+
+        verify(repositorySystem, times(1)).resolveArtifact(any(), any());
+        assertEquals(0L, store.getPrefetches());
+    }
+
+    @Test
+    void resolvedArtifactsCanBeBrowsed(@TempDir Path dir) throws Exception {
+        RepositorySystem repositorySystem = givenResolvedTo(Files.write(dir.resolve("test-1.0.pom"), new byte[3]));
+        ProxyArtifactStore store = new ProxyArtifactStore(givenFactoryHelper(repositorySystem));
+        Artifact artifact = new Artifact("org.example", "test", "1.0", "pom");
+
+        assertTrue(store.getGroupIds("").isEmpty());
+        store.getSize(artifact);
+
+        assertEquals(Collections.singleton("org"), store.getGroupIds(""));
+        assertEquals(Collections.singleton("example"), store.getGroupIds("org"));
+        assertEquals(Collections.singleton("test"), store.getArtifactIds("org.example"));
+        assertEquals(Collections.singleton("1.0"), store.getVersions("org.example", "test"));
+        assertEquals(Collections.singleton(artifact), store.getArtifacts("org.example", "test", "1.0"));
+        assertTrue(store.getArtifacts("org.example", "test", "2.0").isEmpty());
+    }
+
+    private static RepositorySystem givenMetadata(Path dir, String lastUpdated) throws Exception {
+        Metadata metadata = new Metadata();
+        metadata.setGroupId("localhost");
+        metadata.setArtifactId("test");
+        Versioning versioning = new Versioning();
+        versioning.addVersion("1.0");
+        versioning.setLastUpdated(lastUpdated);
+        metadata.setVersioning(versioning);
+        File file = dir.resolve("maven-metadata.xml").toFile();
+        try (Writer writer = Files.newBufferedWriter(file.toPath())) {
+            new MetadataXpp3Writer().write(writer, metadata);
+        }
+        RepositorySystem repositorySystem = mock(RepositorySystem.class);
+        when(repositorySystem.resolveMetadata(any(), any())).thenAnswer(invocation -> {
+            DefaultMetadata resolved =
+                    new DefaultMetadata("localhost", "test", "maven-metadata.xml", Nature.RELEASE_OR_SNAPSHOT);
+            return Collections.singletonList(
+                    new MetadataResult(new MetadataRequest(resolved)).setMetadata(resolved.setFile(file)));
+        });
+        return repositorySystem;
+    }
+
+    private static RepositorySystem givenResolvedTo(Path path) throws Exception {
+        File file = path.toFile();
+        RepositorySystem repositorySystem = mock(RepositorySystem.class);
+        when(repositorySystem.resolveArtifact(any(), any())).thenAnswer(invocation -> {
+            ArtifactRequest request = invocation.getArgument(1);
+            return new ArtifactResult(request).setArtifact(request.getArtifact().setFile(file));
+        });
+        return repositorySystem;
+    }
+
+    private FactoryHelper givenFactoryHelper(RepositorySystem repositorySystem) {
+        FactoryHelper factoryHelper = mock(FactoryHelper.class);
+        when(factoryHelper.getRepositorySystem()).thenReturn(repositorySystem);
+        when(factoryHelper.getArchetypeManager()).then(i -> mock(ArchetypeManager.class));
+        when(factoryHelper.getMavenSession()).thenReturn(mavenSession);
+        return factoryHelper;
+    }
 }
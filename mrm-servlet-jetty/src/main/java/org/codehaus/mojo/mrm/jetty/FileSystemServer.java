@@ -16,8 +16,12 @@ package org.codehaus.mojo.mrm.jetty;
  * limitations under the License.
  */
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.codehaus.mojo.mrm.api.FileSystem;
-import org.codehaus.mojo.mrm.servlet.FileSystemServlet;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.servlet.ServletContextHandler;
@@ -103,6 +107,13 @@ public class FileSystemServer {
      */
     private final boolean debugServer;
 
+    /**
+     * The resources to close once the server has shut down.
+     * <p/>
+     * Guarded by {@link #lock}.
+     */
+    private final List<Closeable> resources = new ArrayList<>();
+
     /**
      * Creates a new file system server that will serve a {@link FileSystem} over HTTP on the specified port.
      *
@@ -191,7 +202,7 @@ public class FileSystemServer {
      */
     public boolean isStarted() {
         synchronized (lock) {
-            return finished;
+            return started;
         }
     }
 
@@ -205,6 +216,19 @@ public class FileSystemServer {
         }
     }
 
+    /**
+     * Registers a resource of the file system, such as an artifact store holding threads or connections, to be closed
+     * once the file system server has shut down. The file system server is not meant to be started again after that.
+     *
+     * @param resource the resource to close.
+     * @since 2.0.0
+     */
+    public void closeOnFinish(Closeable resource) {
+        synchronized (lock) {
+            resources.add(resource);
+        }
+    }
+
     /**
      * Blocks until the file system server has actually shut down.
      *
@@ -255,7 +279,7 @@ public class FileSystemServer {
                 try {
                     ServletContextHandler context = new ServletContextHandler();
                     context.setContextPath(contextPath);
-                    context.addServlet(new ServletHolder(new FileSystemServlet(fileSystem)), "/*");
+                    context.addServlet(new ServletHolder(new JettyFileSystemServlet(fileSystem)), "/*");
                     server.setHandler(context);
                     server.start();
                     synchronized (lock) {
@@ -285,6 +309,18 @@ public class FileSystemServer {
             } catch (Exception e) {
                 // ignore
             } finally {
+                List<Closeable> toClose;
+                synchronized (lock) {
+                    toClose = new ArrayList<>(resources);
+                    resources.clear();
+                }
+                for (Closeable resource : toClose) {
+                    try {
+                        resource.close();
+                    } catch (IOException e) {
+                        // ignore
+                    }
+                }
                 synchronized (lock) {
                     started = false;
                     starting = false;
@@ -0,0 +1,102 @@
+package org.codehaus.mojo.mrm.jetty;
+
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+import org.codehaus.mojo.mrm.api.FileSystem;
+import org.codehaus.mojo.mrm.servlet.FileSystemServlet;
+import org.eclipse.jetty.server.HttpOutput;
+
+/**
+ * A {@link FileSystemServlet} that hands file backed content to Jetty as a channel, so that Jetty reads it into its
+ * own pooled (direct) buffers and writes them to the connection without copying the content through the heap.
+ */
+class JettyFileSystemServlet extends FileSystemServlet {
+
+    JettyFileSystemServlet(FileSystem fileSystem) {
+        super(fileSystem);
+    }
+
+    @Override
+    protected void sendFile(HttpServletResponse resp, FileChannel channel, long offset, long length)
+            throws IOException {
+        ServletOutputStream output = resp.getOutputStream();
+        if (output instanceof HttpOutput) {
+            ((HttpOutput) output).sendContent(new RegionChannel(channel, offset, length));
+            return;
+        }
+        super.sendFile(resp, channel, offset, length);
+    }
+
+    /**
+     * Reads a region of a file channel, and fails instead of ending early if the file is shorter than the region.
+     */
+    private static final class RegionChannel implements ReadableByteChannel {
+
+        private final FileChannel channel;
+
+        private final long end;
+
+        private long position;
+
+        private RegionChannel(FileChannel channel, long offset, long length) {
+            this.channel = channel;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int limit = dst.limit();
+            if (dst.remaining() > end - position) {
+                dst.limit(dst.position() + (int) (end - position));
+            }
+            try {
+                int read = channel.read(dst, position);
+                if (read < 0) {
+                    throw new EOFException("File is shorter than its reported size");
+                }
+                position += read;
+                return read;
+            } finally {
+                dst.limit(limit);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() {
+            // the channel is closed by the servlet once the content is sent
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.jetty;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.codehaus.mojo.mrm.impl.maven.ArtifactStoreFileSystem;
+import org.codehaus.mojo.mrm.impl.maven.DiskArtifactStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileSystemServerTest {
+
+    @TempDir
+    private Path root;
+
+    @Test
+    void isStartedOnlyWhileServing() throws Exception {
+        FileSystemServer server = new FileSystemServer(
+                "test", 0, "/", new ArtifactStoreFileSystem(new DiskArtifactStore(root.toFile())), false);
+        assertFalse(server.isStarted());
+
+        server.ensureStarted();
+        assertTrue(server.isStarted());
+        assertFalse(server.isFinished());
+
+        server.finish();
+        server.waitForFinished();
+        assertFalse(server.isStarted());
+        assertTrue(server.isFinished());
+    }
+
+    @Test
+    void resourcesAreClosedOnceFinished() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        FileSystemServer server = new FileSystemServer(
+                "test", 0, "/", new ArtifactStoreFileSystem(new DiskArtifactStore(root.toFile())), false);
+        server.closeOnFinish(() -> closed.set(true));
+
+        server.ensureStarted();
+        assertFalse(closed.get());
+
+        server.finish();
+        server.waitForFinished();
+        assertTrue(closed.get());
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.jetty;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.Versioning;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Writer;
+import org.codehaus.mojo.mrm.api.Entry;
+import org.codehaus.mojo.mrm.api.FileSystem;
+import org.codehaus.mojo.mrm.api.maven.Artifact;
+import org.codehaus.mojo.mrm.api.maven.ArtifactNotFoundException;
+import org.codehaus.mojo.mrm.impl.maven.ArtifactStoreFileSystem;
+import org.codehaus.mojo.mrm.impl.maven.DiskArtifactStore;
+import org.codehaus.mojo.mrm.impl.maven.HttpProxyArtifactStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpProxyArtifactStoreTest {
+
+    private static final byte[] CONTENT = "jar content".getBytes(StandardCharsets.UTF_8);
+
+    private static final Artifact ARTIFACT = new Artifact("org.example", "a", "1.0", "jar");
+
+    private final List<FileSystemServer> upstreams = new ArrayList<>();
+
+    @TempDir
+    private Path cache;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (FileSystemServer upstream : upstreams) {
+            stop(upstream);
+        }
+    }
+
+    @Test
+    void artifactIsStreamedAndCached(@TempDir Path remote) throws Exception {
+        write(remote, "org/example/a/1.0/a-1.0.jar", CONTENT);
+        FileSystemServer upstream = givenUpstream(remote);
+        HttpProxyArtifactStore store = new HttpProxyArtifactStore(urls(upstream), cache.toFile());
+
+        assertNull(store.getPath(ARTIFACT));
+        assertArrayEquals(CONTENT, read(store, ARTIFACT));
+        assertNotNull(store.getPath(ARTIFACT));
+
+        stop(upstream);
+        assertTrue(upstream.isFinished());
+        assertArrayEquals(CONTENT, read(store, ARTIFACT));
+        assertEquals(Collections.singleton(ARTIFACT), store.getArtifacts("org.example", "a", "1.0"));
+    }
+
+    @Test
+    void sizeAndLastModifiedComeWithTheDownload(@TempDir Path remote) throws Exception {
+        write(remote, "org/example/a/1.0/a-1.0.jar", CONTENT);
+        AtomicInteger requests = new AtomicInteger();
+        ArtifactStoreFileSystem upstreamFileSystem =
+                new ArtifactStoreFileSystem(new DiskArtifactStore(remote.toFile())) {
+                    @Override
+                    public Entry get(String path) {
+                        requests.incrementAndGet();
+                        return super.get(path);
+                    }
+                };
+        HttpProxyArtifactStore store =
+                new HttpProxyArtifactStore(urls(givenUpstream(upstreamFileSystem)), cache.toFile());
+
+        assertEquals(CONTENT.length, store.getSize(ARTIFACT));
+        assertTrue(store.getLastModified(ARTIFACT) > 0);
+        assertArrayEquals(CONTENT, read(store, ARTIFACT));
+
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void abandonedDownloadIsStillCached(@TempDir Path remote) throws Exception {
+        write(remote, "org/example/a/1.0/a-1.0.jar", CONTENT);
+        HttpProxyArtifactStore store = new HttpProxyArtifactStore(urls(givenUpstream(remote)), cache.toFile());
+
+        try (InputStream is = store.get(ARTIFACT)) {
+            assertEquals(CONTENT[0], is.read());
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (store.getPath(ARTIFACT) == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertArrayEquals(CONTENT, Files.readAllBytes(store.getPath(ARTIFACT)));
+        try (Stream<Path> files = Files.walk(cache)) {
+            assertFalse(files.anyMatch(file -> file.toString().endsWith(".part")));
+        }
+    }
+
+    @Test
+    void concurrentReadersShareOneDownload(@TempDir Path remote) throws Exception {
+        write(remote, "org/example/a/1.0/a-1.0.jar", CONTENT);
+        AtomicInteger downloads = new AtomicInteger();
+        DiskArtifactStore upstreamStore = new DiskArtifactStore(remote.toFile()) {
+            @Override
+            public InputStream get(Artifact artifact) throws IOException, ArtifactNotFoundException {
+                downloads.incrementAndGet();
+                return super.get(artifact);
+            }
+
+            @Override
+            public Path getPath(Artifact artifact) throws IOException, ArtifactNotFoundException {
+                // the servlet sends files by path when it can
+                downloads.incrementAndGet();
+                return super.getPath(artifact);
+            }
+        };
+        HttpProxyArtifactStore store = new HttpProxyArtifactStore(urls(givenUpstream(upstreamStore)), cache.toFile());
+
+        try (InputStream first = store.get(ARTIFACT);
+                InputStream second = store.get(ARTIFACT)) {
+            assertArrayEquals(CONTENT, first.readAllBytes());
+            assertArrayEquals(CONTENT, second.readAllBytes());
+        }
+
+        assertEquals(1, downloads.get());
+    }
+
+    @Test
+    void truncatedPartFileFailsTheReader(@TempDir Path remote) throws Exception {
+        byte[] content = new byte[128 * 1024];
+        write(remote, "org/example/a/1.0/a-1.0.jar", content);
+        CountDownLatch release = new CountDownLatch(1);
+        HttpProxyArtifactStore store =
+                new HttpProxyArtifactStore(urls(givenStalledUpstream(remote, content, release)), cache.toFile());
+
+        try (InputStream is = store.get(ARTIFACT)) {
+            Path part = awaitPartFile();
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE)) {
+                channel.truncate(0);
+            }
+
+            assertThrowsExactly(EOFException.class, () -> is.read(new byte[16]));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void partFilesAreNotListed(@TempDir Path remote) throws Exception {
+        byte[] content = new byte[128 * 1024];
+        write(remote, "org/example/a/1.0/a-1.0.jar", content);
+        CountDownLatch release = new CountDownLatch(1);
+        HttpProxyArtifactStore store =
+                new HttpProxyArtifactStore(urls(givenStalledUpstream(remote, content, release)), cache.toFile());
+
+        try (InputStream is = store.get(ARTIFACT)) {
+            Path part = awaitPartFile();
+
+            assertFalse(part.startsWith(cache.resolve("org")));
+            assertEquals(Collections.singleton("org"), store.getGroupIds(""));
+            assertEquals(Collections.emptySet(), store.getArtifacts("org.example", "a", "1.0"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void closeStopsTheDownloads(@TempDir Path remote) throws Exception {
+        byte[] content = new byte[128 * 1024];
+        write(remote, "org/example/a/1.0/a-1.0.jar", content);
+        CountDownLatch release = new CountDownLatch(1);
+        HttpProxyArtifactStore store =
+                new HttpProxyArtifactStore(urls(givenStalledUpstream(remote, content, release)), cache.toFile());
+
+        try (InputStream is = store.get(ARTIFACT)) {
+            awaitPartFile();
+            store.close();
+
+            assertThrows(IOException.class, is::readAllBytes);
+            assertThrows(IOException.class, () -> store.get(new Artifact("org.example", "a", "2.0", "jar")));
+        } finally {
+            release.countDown();
+        }
+        assertNull(store.getPath(ARTIFACT));
+        try (Stream<Path> files = Files.walk(cache)) {
+            assertFalse(files.anyMatch(file -> file.toString().endsWith(".part")));
+        }
+    }
+
+    @Test
+    void checksumIsParsedFromSidecarFile(@TempDir Path remote) throws Exception {
+        // the SHA-1 of CONTENT
+        String sha1 = "98e8c388609d8eb82fa1fe3ab08dfe892c4f4c95";
+        write(remote, "org/example/a/1.0/a-1.0.jar", CONTENT);
+        write(
+                remote,
+                "org/example/a/1.0/a-1.0.jar.sha1",
+                (sha1.toUpperCase(Locale.ROOT) + "  a-1.0.jar\n").getBytes(StandardCharsets.US_ASCII));
+        HttpProxyArtifactStore store = new HttpProxyArtifactStore(urls(givenUpstream(remote)), cache.toFile());
+
+        assertEquals(sha1, store.getSha1Checksum(ARTIFACT));
+        assertEquals(sha1, store.getSha1Checksum(ARTIFACT));
+    }
+
+    @Test
+    void checksumOfMissingArtifactIsNotFound(@TempDir Path remote) throws Exception {
+        write(remote, "org/example/a/1.0/a-1.0.jar.sha1", "not a checksum".getBytes(StandardCharsets.US_ASCII));
+        HttpProxyArtifactStore store = new HttpProxyArtifactStore(urls(givenUpstream(remote)), cache.toFile());
+
+        assertThrowsExactly(ArtifactNotFoundException.class, () -> store.getSha1Checksum(ARTIFACT));
+    }
+
+    @Test
+    void laterRemoteIsAskedWhenEarlierOneMisses(@TempDir Path first, @TempDir Path second) throws Exception {
+        write(second, "org/example/a/1.0/a-1.0.jar", CONTENT);
+        HttpProxyArtifactStore store =
+                new HttpProxyArtifactStore(urls(givenUpstream(first), givenUpstream(second)), cache.toFile());
+
+        assertArrayEquals(CONTENT, read(store, ARTIFACT));
+        assertThrowsExactly(
+                ArtifactNotFoundException.class, () -> store.get(new Artifact("org.example", "a", "2.0", "jar")));
+    }
+
+    @Test
+    void metadataIsMergedFromAllRemotes(@TempDir Path first, @TempDir Path second) throws Exception {
+        writeMetadata(first, "1.0");
+        writeMetadata(second, "2.0");
+        HttpProxyArtifactStore store =
+                new HttpProxyArtifactStore(urls(givenUpstream(first), givenUpstream(second)), cache.toFile());
+
+        Metadata metadata = store.getMetadata("/org/example/a/");
+
+        assertEquals(Arrays.asList("1.0", "2.0"), metadata.getVersioning().getVersions());
+    }
+
+    private FileSystemServer givenUpstream(Path remote) throws Exception {
+        return givenUpstream(new DiskArtifactStore(remote.toFile()));
+    }
+
+    private FileSystemServer givenUpstream(DiskArtifactStore remote) throws Exception {
+        return givenUpstream(new ArtifactStoreFileSystem(remote));
+    }
+
+    private FileSystemServer givenUpstream(FileSystem remote) throws Exception {
+        FileSystemServer upstream = new FileSystemServer("upstream", 0, "/", remote, false);
+        upstream.ensureStarted();
+        upstreams.add(upstream);
+        return upstream;
+    }
+
+    /**
+     * Serves half of the content, then stalls until released.
+     */
+    private FileSystemServer givenStalledUpstream(Path remote, byte[] content, CountDownLatch release)
+            throws Exception {
+        return givenUpstream(new DiskArtifactStore(remote.toFile()) {
+            @Override
+            public InputStream get(Artifact artifact) {
+                return new SequenceInputStream(
+                        new ByteArrayInputStream(content, 0, content.length / 2), new InputStream() {
+                            @Override
+                            public int read() throws IOException {
+                                try {
+                                    release.await();
+                                } catch (InterruptedException e) {
+                                    throw new InterruptedIOException();
+                                }
+                                return -1;
+                            }
+                        });
+            }
+
+            @Override
+            public Path getPath(Artifact artifact) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Waits until the part file of the stalled download stops growing.
+     */
+    private Path awaitPartFile() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        long size = 0;
+        while (System.nanoTime() < deadline) {
+            try (Stream<Path> files = Files.walk(cache)) {
+                Optional<Path> part =
+                        files.filter(file -> file.toString().endsWith(".part")).findFirst();
+                if (part.isPresent() && size > 0 && part.get().toFile().length() == size) {
+                    return part.get();
+                }
+                size = part.isPresent() ? part.get().toFile().length() : 0;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("No part file was written");
+    }
+
+    private static List<URI> urls(FileSystemServer... upstreams) {
+        List<URI> urls = new ArrayList<>();
+        for (FileSystemServer upstream : upstreams) {
+            urls.add(URI.create(upstream.getUrl()));
+        }
+        return urls;
+    }
+
+    private static void stop(FileSystemServer upstream) throws InterruptedException {
+        if (upstream.isStarted()) {
+            upstream.finish();
+            upstream.waitForFinished();
+        }
+    }
+
+    private static void write(Path root, String path, byte[] content) throws Exception {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+    }
+
+    private static void writeMetadata(Path root, String version) throws Exception {
+        Metadata metadata = new Metadata();
+        metadata.setGroupId("org.example");
+        metadata.setArtifactId("a");
+        Versioning versioning = new Versioning();
+        versioning.addVersion(version);
+        metadata.setVersioning(versioning);
+        Path file = root.resolve("org/example/a/maven-metadata.xml");
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            new MetadataXpp3Writer().write(writer, metadata);
+        }
+    }
+
+    private static byte[] read(HttpProxyArtifactStore store, Artifact artifact) throws Exception {
+        try (InputStream is = store.get(artifact)) {
+            return is.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.jetty;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.codehaus.mojo.mrm.impl.maven.ArtifactStoreFileSystem;
+import org.codehaus.mojo.mrm.impl.maven.DiskArtifactStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JettyFileSystemServletTest {
+
+    private static final String PATH = "/org/example/a/1.0/a-1.0.jar";
+
+    private final byte[] content = new byte[100000];
+
+    private FileSystemServer server;
+
+    @BeforeEach
+    void setUp(@TempDir Path root) throws Exception {
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Path file = root.resolve(PATH.substring(1));
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        server = new FileSystemServer(
+                "test", 0, "/", new ArtifactStoreFileSystem(new DiskArtifactStore(root.toFile())), false);
+        server.ensureStarted();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.finish();
+        server.waitForFinished();
+    }
+
+    @Test
+    void fileIsSent() throws Exception {
+        HttpURLConnection connection = open();
+
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(content.length, connection.getContentLengthLong());
+        assertArrayEquals(content, read(connection));
+    }
+
+    @Test
+    void rangeOfFileIsSent() throws Exception {
+        HttpURLConnection connection = open();
+        connection.setRequestProperty("Range", "bytes=1000-50999");
+
+        assertEquals(206, connection.getResponseCode());
+        assertArrayEquals(Arrays.copyOfRange(content, 1000, 51000), read(connection));
+    }
+
+    private HttpURLConnection open() throws Exception {
+        return (HttpURLConnection) new URL(server.getUrl() + PATH).openConnection();
+    }
+
+    private static byte[] read(HttpURLConnection connection) throws Exception {
+        try (InputStream is = connection.getInputStream()) {
+            return is.readAllBytes();
+        }
+    }
+}
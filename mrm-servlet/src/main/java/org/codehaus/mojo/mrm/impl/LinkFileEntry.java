@@ -18,6 +18,7 @@ package org.codehaus.mojo.mrm.impl;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 
 import org.codehaus.mojo.mrm.api.BaseFileEntry;
 import org.codehaus.mojo.mrm.api.DirectoryEntry;
@@ -85,4 +86,9 @@ public class LinkFileEntry extends BaseFileEntry {
     public String getSha1Checksum() throws IOException {
         return entry.getSha1Checksum();
     }
+
+    @Override
+    public Path getPath() throws IOException {
+        return entry.getPath();
+    }
 }
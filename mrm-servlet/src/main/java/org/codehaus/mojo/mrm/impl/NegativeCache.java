@@ -0,0 +1,129 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded cache of keys that are known to be missing, each remembered for a limited time only. When the cache
+ * is full the oldest entries are forgotten first.
+ *
+ * @param <K> the type of key.
+ * @since 2.0.0
+ */
+public final class NegativeCache<K> {
+
+    /**
+     * The maximum number of keys to remember.
+     *
+     * @since 2.0.0
+     */
+    private final int maxEntries;
+
+    /**
+     * How long a key is remembered, in nanoseconds.
+     *
+     * @since 2.0.0
+     */
+    private final long ttlNanos;
+
+    /**
+     * The expiry time (as per {@link System#nanoTime()}) of each remembered key, in the order they were added.
+     *
+     * @since 2.0.0
+     */
+    private final Map<K, Long> expiries = new LinkedHashMap<>();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxEntries the maximum number of keys to remember.
+     * @param ttl        how long a key is remembered.
+     * @param unit       the unit of <code>ttl</code>.
+     * @since 2.0.0
+     */
+    public NegativeCache(int maxEntries, long ttl, TimeUnit unit) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * Checks if the key is known to be missing.
+     *
+     * @param key the key.
+     * @return <code>true</code> if the key was recorded as missing and that has not expired yet.
+     * @since 2.0.0
+     */
+    public synchronized boolean contains(K key) {
+        Long expiry = expiries.get(key);
+        if (expiry == null) {
+            return false;
+        }
+        if (expiry - System.nanoTime() <= 0) {
+            expiries.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records the key as missing.
+     *
+     * @param key the key.
+     * @since 2.0.0
+     */
+    public synchronized void add(K key) {
+        if (maxEntries <= 0 || ttlNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        // re-insert so that the key moves to the end of the expiry order
+        expiries.remove(key);
+        expiries.put(key, now + ttlNanos);
+        Iterator<Long> iterator = expiries.values().iterator();
+        while (iterator.hasNext()) {
+            long expiry = iterator.next();
+            if (expiries.size() > maxEntries || expiry - now <= 0) {
+                iterator.remove();
+            } else {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Forgets that the key is missing.
+     *
+     * @param key the key.
+     * @since 2.0.0
+     */
+    public synchronized void remove(K key) {
+        expiries.remove(key);
+    }
+
+    /**
+     * Forgets all the missing keys.
+     *
+     * @since 2.0.0
+     */
+    public synchronized void clear() {
+        expiries.clear();
+    }
+}
@@ -44,6 +44,13 @@ import org.codehaus.mojo.mrm.impl.LinkFileEntry;
  * @since 1.0
  */
 public class AutoDigestFileSystem extends BaseFileSystem {
+    /**
+     * The maximum number of generated digests to remember.
+     *
+     * @since 2.0.0
+     */
+    private static final int DIGEST_CACHE_SIZE = 10000;
+
     /**
      * The backing filesystem.
      *
@@ -59,14 +66,32 @@ public class AutoDigestFileSystem extends BaseFileSystem {
     private final Map<String, DigestFileEntryFactory> digestFactories;
 
     /**
-     * Creates an instance that will add SHA1 and MD5 digests to the backing file system for any entries that are
-     * missing digests.
+     * The generated digests, so that repeated requests for a digest do not read the digested entry again.
+     *
+     * @since 2.0.0
+     */
+    private final DigestCache digestCache = new DigestCache(DIGEST_CACHE_SIZE);
+
+    /**
+     * Computes all the digests of an entry in a single read.
+     *
+     * @since 2.0.0
+     */
+    private final DigestEngine digestEngine;
+
+    /**
+     * Creates an instance that will add MD5, SHA1, SHA-256 and SHA-512 digests to the backing file system for any
+     * entries that are missing digests.
      *
      * @param backing the backing file system.
      * @since 1.0
      */
     public AutoDigestFileSystem(FileSystem backing) {
-        this(backing, new DigestFileEntryFactory[] {new MD5DigestFileEntry.Factory(), new SHA1DigestFileEntry.Factory()
+        this(backing, new DigestFileEntryFactory[] {
+            new MD5DigestFileEntry.Factory(),
+            new SHA1DigestFileEntry.Factory(),
+            new MessageDigestFileEntry.Factory(".sha256", "SHA-256"),
+            new MessageDigestFileEntry.Factory(".sha512", "SHA-512")
         });
     }
 
@@ -82,6 +107,7 @@ public class AutoDigestFileSystem extends BaseFileSystem {
         this.backing = backing;
         this.digestFactories = Collections.unmodifiableMap(Arrays.stream(digestFactories)
                 .collect(Collectors.toMap(DigestFileEntryFactory::getType, factory -> factory)));
+        this.digestEngine = new DigestEngine(this.digestFactories.values());
     }
 
     @Override
@@ -111,7 +137,7 @@ public class AutoDigestFileSystem extends BaseFileSystem {
             FileEntry fileEntry = entry.getValue();
             for (DigestFileEntryFactory factory : digestFactories.values()) {
                 if (name.endsWith(factory.getType())) {
-                    result.put(name, factory.create(this, directory, fileEntry));
+                    result.put(name, createDigest(factory, directory, fileEntry));
                 }
             }
         }
@@ -146,7 +172,7 @@ public class AutoDigestFileSystem extends BaseFileSystem {
                 if (name.endsWith(factory.getType())) {
                     final String str = name;
                     Entry shadow = backing.get(parent.toPath() + "/" + Strings.CS.removeEnd(str, factory.getType()));
-                    return factory.create(this, parent, (FileEntry) shadow);
+                    return createDigest(factory, parent, (FileEntry) shadow);
                 }
             }
             return get(parent, name);
@@ -172,7 +198,7 @@ public class AutoDigestFileSystem extends BaseFileSystem {
                         Entry shadow = backing.get(
                                 parent.toPath() + "/" + Strings.CS.removeEnd(entry.getName(), factory.getType()));
                         return new GenerateOnErrorFileEntry(
-                                this, parent, (FileEntry) entry, factory.create(this, parent, (FileEntry) shadow));
+                                this, parent, (FileEntry) entry, createDigest(factory, parent, (FileEntry) shadow));
                     }
                 }
                 return new LinkFileEntry(this, parent, (FileEntry) entry);
@@ -181,7 +207,7 @@ public class AutoDigestFileSystem extends BaseFileSystem {
                     if (entry.getName().endsWith(factory.getType())) {
                         Entry shadow = backing.get(
                                 parent.toPath() + "/" + Strings.CS.removeEnd(entry.getName(), factory.getType()));
-                        return factory.create(this, parent, (FileEntry) shadow);
+                        return createDigest(factory, parent, (FileEntry) shadow);
                     }
                 }
                 return new DefaultDirectoryEntry(this, parent, entry.getName());
@@ -190,6 +216,20 @@ public class AutoDigestFileSystem extends BaseFileSystem {
         return null;
     }
 
+    /**
+     * Creates a digest entry whose content is remembered for as long as the digested entry does not change.
+     *
+     * @param factory the digest factory.
+     * @param parent  the parent directory that the digest entry will belong to.
+     * @param entry   the entry that the digest entry will digest.
+     * @return a digest file entry.
+     * @since 2.0.0
+     */
+    private FileEntry createDigest(DigestFileEntryFactory factory, DirectoryEntry parent, FileEntry entry) {
+        return new CachedDigestFileEntry(
+                this, parent, factory.create(this, parent, entry), entry, factory.getType(), digestCache, digestEngine);
+    }
+
     @Override
     public FileEntry put(DirectoryEntry parent, String name, InputStream content) throws IOException {
         return backing.put(parent, name, content);
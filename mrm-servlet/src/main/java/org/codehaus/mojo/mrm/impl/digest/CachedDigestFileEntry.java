@@ -0,0 +1,160 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.impl.digest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.codehaus.mojo.mrm.api.BaseFileEntry;
+import org.codehaus.mojo.mrm.api.DirectoryEntry;
+import org.codehaus.mojo.mrm.api.FileEntry;
+import org.codehaus.mojo.mrm.api.FileSystem;
+
+/**
+ * A digest entry that only generates its content if the {@link DigestCache} does not already hold it for the
+ * current version of the digested entry. Digests that the {@link DigestEngine} supports are generated together with
+ * all the other supported digests of the entry, so that the entry is read only once.
+ *
+ * @since 2.0.0
+ */
+class CachedDigestFileEntry extends BaseFileEntry {
+
+    /**
+     * The digest entry that generates the content.
+     *
+     * @since 2.0.0
+     */
+    private final FileEntry digest;
+
+    /**
+     * The digested entry.
+     *
+     * @since 2.0.0
+     */
+    private final FileEntry entry;
+
+    /**
+     * The cache of generated digests.
+     *
+     * @since 2.0.0
+     */
+    private final DigestCache cache;
+
+    /**
+     * The type of digest (i.e. the file extension).
+     *
+     * @since 2.0.0
+     */
+    private final String type;
+
+    /**
+     * The engine that computes all the supported digests in one read.
+     *
+     * @since 2.0.0
+     */
+    private final DigestEngine engine;
+
+    /**
+     * Creates an instance in the specified directory of the specified file system.
+     *
+     * @param fileSystem the file system.
+     * @param parent     the parent directory.
+     * @param digest     the digest entry that generates the content.
+     * @param entry      the digested entry.
+     * @param type       the type of digest (i.e. the file extension).
+     * @param cache      the cache of generated digests.
+     * @param engine     the engine that computes all the supported digests in one read.
+     * @since 2.0.0
+     */
+    CachedDigestFileEntry(
+            FileSystem fileSystem,
+            DirectoryEntry parent,
+            FileEntry digest,
+            FileEntry entry,
+            String type,
+            DigestCache cache,
+            DigestEngine engine) {
+        super(fileSystem, parent, digest.getName());
+        this.digest = digest;
+        this.entry = entry;
+        this.type = type;
+        this.cache = cache;
+        this.engine = engine;
+    }
+
+    @Override
+    public long getLastModified() throws IOException {
+        return digest.getLastModified();
+    }
+
+    @Override
+    public long getSize() throws IOException {
+        return digest.getSize();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new ByteArrayInputStream(getContent());
+    }
+
+    /**
+     * Returns the cached digest, generating and caching it if needed.
+     *
+     * @return the digest.
+     * @throws IOException if the digest could not be generated.
+     * @since 2.0.0
+     */
+    private byte[] getContent() throws IOException {
+        String path = toPath();
+        long lastModified = entry.getLastModified();
+        long size = entry.getSize();
+        byte[] content = cache.get(path, lastModified, size);
+        if (content != null) {
+            return content;
+        }
+        if (engine.supports(type) && !isKnownSha1()) {
+            // compute every supported digest of the entry now, they are usually requested together
+            String basePath = path.substring(0, path.length() - type.length());
+            Map<String, byte[]> digests = engine.digest(entry);
+            for (Map.Entry<String, byte[]> computed : digests.entrySet()) {
+                cache.put(basePath + computed.getKey(), lastModified, size, computed.getValue());
+            }
+            content = digests.get(type);
+        }
+        if (content == null) {
+            try (InputStream is = digest.getInputStream()) {
+                content = IOUtils.toByteArray(is);
+            }
+            cache.put(path, lastModified, size, content);
+        }
+        return content;
+    }
+
+    /**
+     * Checks if this is a SHA-1 digest that the digested entry already knows, in which case it is not worth reading
+     * the entry.
+     *
+     * @return <code>true</code> if the digest can be had without reading the digested entry.
+     * @throws IOException if an I/O error occurs.
+     */
+    private boolean isKnownSha1() throws IOException {
+        return DigestEngine.SHA1.equals(engine.getAlgorithm(type)) && DigestEngine.getKnownSha1(entry) != null;
+    }
+}
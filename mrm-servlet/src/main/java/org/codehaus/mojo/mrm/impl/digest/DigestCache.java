@@ -0,0 +1,126 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.impl.digest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least recently used cache of generated digests. Digests are keyed by the path of the digest entry
+ * together with the last modified time and size of the entry they digest, so a changed entry never hits a stale
+ * digest.
+ *
+ * @since 2.0.0
+ */
+final class DigestCache {
+
+    /**
+     * The maximum number of digests to hold.
+     *
+     * @since 2.0.0
+     */
+    private final int maxEntries;
+
+    /**
+     * The digests in access order.
+     *
+     * @since 2.0.0
+     */
+    private final Map<Key, byte[]> digests;
+
+    /**
+     * Creates a cache that holds at most the specified number of digests.
+     *
+     * @param maxEntries the maximum number of digests to hold.
+     * @since 2.0.0
+     */
+    DigestCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.digests = new LinkedHashMap<Key, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, byte[]> eldest) {
+                return size() > DigestCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached digest.
+     *
+     * @param path         the path of the digest entry.
+     * @param lastModified the last modified time of the digested entry.
+     * @param size         the size of the digested entry.
+     * @return the digest or <code>null</code> if it is not cached.
+     * @since 2.0.0
+     */
+    synchronized byte[] get(String path, long lastModified, long size) {
+        return digests.get(new Key(path, lastModified, size));
+    }
+
+    /**
+     * Caches a digest.
+     *
+     * @param path         the path of the digest entry.
+     * @param lastModified the last modified time of the digested entry.
+     * @param size         the size of the digested entry.
+     * @param digest       the digest.
+     * @since 2.0.0
+     */
+    synchronized void put(String path, long lastModified, long size, byte[] digest) {
+        digests.put(new Key(path, lastModified, size), digest);
+    }
+
+    /**
+     * The key of a cached digest.
+     *
+     * @since 2.0.0
+     */
+    private static final class Key {
+
+        private final String path;
+
+        private final long lastModified;
+
+        private final long size;
+
+        private Key(String path, long lastModified, long size) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return lastModified == key.lastModified && size == key.size && path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = path.hashCode();
+            result = 31 * result + Long.hashCode(lastModified);
+            result = 31 * result + Long.hashCode(size);
+            return result;
+        }
+    }
+}
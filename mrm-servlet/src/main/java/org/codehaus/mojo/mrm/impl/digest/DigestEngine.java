@@ -0,0 +1,184 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.impl.digest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang3.StringUtils;
+import org.codehaus.mojo.mrm.api.FileEntry;
+
+/**
+ * Computes the digests of several {@link MessageDigest} algorithms with a single read of the digested entry.
+ *
+ * @since 2.0.0
+ */
+final class DigestEngine {
+
+    /**
+     * The name of the SHA-1 algorithm, which file entries may already know the digest of.
+     *
+     * @since 2.0.0
+     */
+    static final String SHA1 = "SHA-1";
+
+    /**
+     * The {@link MessageDigest} algorithms keyed by digest type (i.e. the file extension).
+     *
+     * @since 2.0.0
+     */
+    private final Map<String, String> algorithms;
+
+    /**
+     * Creates an engine for the factories that name a {@link MessageDigest} algorithm.
+     *
+     * @param factories the digest factories.
+     * @since 2.0.0
+     */
+    DigestEngine(Iterable<DigestFileEntryFactory> factories) {
+        Map<String, String> algorithms = new LinkedHashMap<>();
+        for (DigestFileEntryFactory factory : factories) {
+            if (factory.getAlgorithm() != null) {
+                algorithms.put(factory.getType(), factory.getAlgorithm());
+            }
+        }
+        this.algorithms = Collections.unmodifiableMap(algorithms);
+    }
+
+    /**
+     * Checks if the engine computes the digest of the specified type.
+     *
+     * @param type the type of digest (i.e. the file extension).
+     * @return <code>true</code> if the engine computes the digest.
+     * @since 2.0.0
+     */
+    boolean supports(String type) {
+        return algorithms.containsKey(type);
+    }
+
+    /**
+     * Returns the algorithm of the specified type of digest.
+     *
+     * @param type the type of digest (i.e. the file extension).
+     * @return the algorithm or <code>null</code> if the engine does not compute the digest.
+     * @since 2.0.0
+     */
+    String getAlgorithm(String type) {
+        return algorithms.get(type);
+    }
+
+    /**
+     * Computes all the digests of the engine in one read of the entry.
+     *
+     * @param entry the entry to digest.
+     * @return the hex encoded digests keyed by digest type.
+     * @throws IOException if the entry could not be read.
+     * @since 2.0.0
+     */
+    Map<String, byte[]> digest(FileEntry entry) throws IOException {
+        Map<String, MessageDigest> digests = new LinkedHashMap<>();
+        for (Map.Entry<String, String> algorithm : algorithms.entrySet()) {
+            digests.put(algorithm.getKey(), newMessageDigest(algorithm.getValue()));
+        }
+        update(entry, digests.values().toArray(new MessageDigest[0]));
+        Map<String, byte[]> result = new LinkedHashMap<>();
+        for (Map.Entry<String, MessageDigest> digest : digests.entrySet()) {
+            result.put(digest.getKey(), toHex(digest.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Computes a single digest of the entry.
+     *
+     * @param entry     the entry to digest.
+     * @param algorithm the {@link MessageDigest} algorithm.
+     * @return the hex encoded digest.
+     * @throws IOException if the entry could not be read.
+     * @since 2.0.0
+     */
+    static byte[] digest(FileEntry entry, String algorithm) throws IOException {
+        MessageDigest digest = newMessageDigest(algorithm);
+        update(entry, digest);
+        return toHex(digest);
+    }
+
+    /**
+     * Returns the SHA-1 digest the entry already knows without reading it.
+     *
+     * @param entry the entry.
+     * @return the hex encoded digest or <code>null</code> if the entry does not know a well-formed SHA-1 digest.
+     * @throws IOException if an I/O error occurs.
+     * @since 2.0.0
+     */
+    static byte[] getKnownSha1(FileEntry entry) throws IOException {
+        String checksum = entry.getSha1Checksum();
+        if (StringUtils.isBlank(checksum)) {
+            return null;
+        }
+        // sidecar files may carry the file name after the checksum
+        checksum = checksum.trim().split("\\s+")[0];
+        if (checksum.length() != 40) {
+            return null;
+        }
+        return checksum.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Returns the length of the hex encoded digests of an algorithm.
+     *
+     * @param algorithm the {@link MessageDigest} algorithm.
+     * @return the number of hex digits of a digest.
+     * @throws IOException if the algorithm is not available.
+     * @since 2.0.0
+     */
+    static int getHexLength(String algorithm) throws IOException {
+        return newMessageDigest(algorithm).getDigestLength() * 2;
+    }
+
+    private static MessageDigest newMessageDigest(String algorithm) throws IOException {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Unable to calculate hash", e);
+        }
+    }
+
+    private static void update(FileEntry entry, MessageDigest... digests) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        try (InputStream is = entry.getInputStream()) {
+            while ((read = is.read(buffer)) > 0) {
+                for (MessageDigest digest : digests) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+    }
+
+    private static byte[] toHex(MessageDigest digest) {
+        return Hex.encodeHexString(digest.digest()).getBytes(StandardCharsets.US_ASCII);
+    }
+}
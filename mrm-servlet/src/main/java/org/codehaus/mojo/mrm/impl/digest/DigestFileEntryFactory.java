@@ -34,6 +34,18 @@ public interface DigestFileEntryFactory {
      */
     String getType();
 
+    /**
+     * Returns the name of the {@link java.security.MessageDigest} algorithm that computes the digest, which allows
+     * the digest to be computed together with the other digests in a single read of the digested entry.
+     *
+     * @return the name of the algorithm or <code>null</code> if the digest is not computed by a
+     *         {@link java.security.MessageDigest}.
+     * @since 2.0.0
+     */
+    default String getAlgorithm() {
+        return null;
+    }
+
     /**
      * Creates a digest entry for the specified content within the specified directory of the file system.
      *
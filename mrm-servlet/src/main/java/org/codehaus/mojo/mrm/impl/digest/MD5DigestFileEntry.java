@@ -108,6 +108,11 @@ public class MD5DigestFileEntry extends BaseFileEntry {
             return ".md5";
         }
 
+        @Override
+        public String getAlgorithm() {
+            return "MD5";
+        }
+
         @Override
         public FileEntry create(FileSystem fileSystem, DirectoryEntry parent, FileEntry entry) {
             return new MD5DigestFileEntry(fileSystem, parent, entry);
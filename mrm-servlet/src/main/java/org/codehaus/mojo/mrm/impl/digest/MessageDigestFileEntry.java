@@ -0,0 +1,133 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.impl.digest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.codehaus.mojo.mrm.api.BaseFileEntry;
+import org.codehaus.mojo.mrm.api.DirectoryEntry;
+import org.codehaus.mojo.mrm.api.FileEntry;
+import org.codehaus.mojo.mrm.api.FileSystem;
+
+/**
+ * A {@link FileEntry} that corresponds to the digest of another file entry computed by a
+ * {@link java.security.MessageDigest} algorithm, such as the SHA-256 and SHA-512 digests.
+ *
+ * @since 2.0.0
+ */
+public class MessageDigestFileEntry extends BaseFileEntry {
+
+    /**
+     * The entry we will calculate the digest of.
+     *
+     * @since 2.0.0
+     */
+    private final FileEntry entry;
+
+    /**
+     * The name of the {@link java.security.MessageDigest} algorithm.
+     *
+     * @since 2.0.0
+     */
+    private final String algorithm;
+
+    /**
+     * Creates an instance in the specified directory of the specified file system that will calculate the
+     * digest of the specified file entry.
+     *
+     * @param fileSystem the file system.
+     * @param parent     the parent directory.
+     * @param entry      the entry to digest.
+     * @param type       the type of digest (i.e. the file extension).
+     * @param algorithm  the name of the {@link java.security.MessageDigest} algorithm.
+     * @since 2.0.0
+     */
+    public MessageDigestFileEntry(
+            FileSystem fileSystem, DirectoryEntry parent, FileEntry entry, String type, String algorithm) {
+        super(fileSystem, parent, entry.getName() + type);
+        this.entry = entry;
+        this.algorithm = algorithm;
+    }
+
+    @Override
+    public long getLastModified() throws IOException {
+        return entry.getLastModified();
+    }
+
+    @Override
+    public long getSize() throws IOException {
+        return DigestEngine.getHexLength(algorithm);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new ByteArrayInputStream(DigestEngine.digest(entry, algorithm));
+    }
+
+    /**
+     * A {@link DigestFileEntryFactory} that creates the digest entries of a {@link java.security.MessageDigest}
+     * algorithm.
+     *
+     * @since 2.0.0
+     */
+    public static class Factory extends BaseDigestFileEntryFactory {
+
+        /**
+         * The type of digest (i.e. the file extension).
+         *
+         * @since 2.0.0
+         */
+        private final String type;
+
+        /**
+         * The name of the {@link java.security.MessageDigest} algorithm.
+         *
+         * @since 2.0.0
+         */
+        private final String algorithm;
+
+        /**
+         * Creates a factory of digest entries.
+         *
+         * @param type      the type of digest (i.e. the file extension), for example <code>.sha256</code>.
+         * @param algorithm the name of the {@link java.security.MessageDigest} algorithm, for example
+         *                  <code>SHA-256</code>.
+         * @since 2.0.0
+         */
+        public Factory(String type, String algorithm) {
+            this.type = type;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        public String getType() {
+            return type;
+        }
+
+        @Override
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        @Override
+        public FileEntry create(FileSystem fileSystem, DirectoryEntry parent, FileEntry entry) {
+            return new MessageDigestFileEntry(fileSystem, parent, entry, type, algorithm);
+        }
+    }
+}
@@ -73,13 +73,17 @@ public class SHA1DigestFileEntry extends BaseFileEntry {
     }
 
     /**
-     * Generates the digest.
+     * Generates the digest, using the checksum the backing entry already knows if it has one.
      *
      * @return the digest.
      * @throws IOException if the backing entry could not be read.
      * @since 1.0
      */
     private byte[] getContent() throws IOException {
+        byte[] checksum = DigestEngine.getKnownSha1(entry);
+        if (checksum != null) {
+            return checksum;
+        }
         try (InputStream is = entry.getInputStream()) {
             MessageDigest digest = MessageDigest.getInstance("SHA1");
             digest.reset();
@@ -107,6 +111,11 @@ public class SHA1DigestFileEntry extends BaseFileEntry {
             return ".sha1";
         }
 
+        @Override
+        public String getAlgorithm() {
+            return "SHA-1";
+        }
+
         @Override
         public FileEntry create(FileSystem fileSystem, DirectoryEntry parent, FileEntry entry) {
             return new SHA1DigestFileEntry(fileSystem, parent, entry);
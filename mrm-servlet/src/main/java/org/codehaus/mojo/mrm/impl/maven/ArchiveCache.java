@@ -0,0 +1,217 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.impl.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Keeps the archives of exploded directories, and their SHA-1 checksums, on disk across restarts. An archive is keyed
+ * by a hash of the directory tree (relative paths, sizes and modification times) and of the transformation applied
+ * to it, so it is reused for as long as none of them changed.
+ *
+ * @since 2.0.0
+ */
+final class ArchiveCache {
+
+    /**
+     * The version of the key format, to be changed whenever archives built before would no longer be the same.
+     *
+     * @since 2.0.0
+     */
+    private static final String KEY_VERSION = "1";
+
+    /**
+     * The directory holding the archives.
+     *
+     * @since 2.0.0
+     */
+    private final File directory;
+
+    /**
+     * The name of the transformation applied to the archived directories, or {@code null} if none.
+     *
+     * @since 2.0.0
+     */
+    private final String transform;
+
+    /**
+     * Creates a cache of archives.
+     *
+     * @param directory the directory holding the archives.
+     * @param transform the name of the transformation applied to the archived directories, or {@code null} if none.
+     * @since 2.0.0
+     */
+    ArchiveCache(File directory, String transform) {
+        this.directory = directory;
+        this.transform = transform;
+    }
+
+    /**
+     * Returns the archive of the specified directory, building it only if it is not cached yet.
+     *
+     * @param source the directory to archive.
+     * @param builder builds the archive into the file it is given.
+     * @return the archive.
+     * @throws IOException if the archive could not be built or cached.
+     * @since 2.0.0
+     */
+    Archive get(File source, Builder builder) throws IOException {
+        String name = key(source) + '.' + org.codehaus.plexus.util.FileUtils.extension(source.getName());
+        Path archive = directory.toPath().resolve(name);
+        Path checksum = directory.toPath().resolve(name + ".sha1");
+        if (Files.isRegularFile(archive) && Files.isRegularFile(checksum)) {
+            String sha1 = new String(Files.readAllBytes(checksum), StandardCharsets.US_ASCII).trim();
+            return new Archive(archive.toFile(), sha1, true);
+        }
+
+        Files.createDirectories(directory.toPath());
+        Path part = Files.createTempFile(directory.toPath(), name + '-', ".part");
+        try {
+            Files.delete(part);
+            builder.build(part.toFile());
+            String sha1;
+            try (InputStream inputStream = Files.newInputStream(part)) {
+                sha1 = DigestUtils.sha1Hex(inputStream);
+            }
+            // the archive goes first: it is only reused once its checksum is there as well
+            move(part, archive);
+            Path checksumPart = Files.createTempFile(directory.toPath(), name + '-', ".part");
+            Files.write(checksumPart, sha1.getBytes(StandardCharsets.US_ASCII));
+            move(checksumPart, checksum);
+            return new Archive(archive.toFile(), sha1, false);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    /**
+     * Computes the key of the specified directory.
+     *
+     * @param source the directory.
+     * @return the key.
+     * @throws IOException if the directory could not be walked.
+     * @since 2.0.0
+     */
+    private String key(File source) throws IOException {
+        MessageDigest digest = DigestUtils.getSha256Digest();
+        update(digest, KEY_VERSION);
+        update(digest, transform == null ? "" : transform);
+        update(digest, source.getName());
+        Path root = source.toPath();
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(root)) {
+            paths = walk.sorted().collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            update(digest, root.relativize(path).toString().replace(File.separatorChar, '/'));
+            update(digest, attributes.isDirectory() ? "-" : Long.toString(attributes.size()));
+            update(digest, Long.toString(attributes.lastModifiedTime().toMillis()));
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Builds an archive.
+     *
+     * @since 2.0.0
+     */
+    @FunctionalInterface
+    interface Builder {
+
+        /**
+         * Builds the archive into the specified file.
+         *
+         * @param destination the file to build the archive into, it does not exist yet.
+         * @throws IOException if the archive could not be built.
+         * @since 2.0.0
+         */
+        void build(File destination) throws IOException;
+    }
+
+    /**
+     * An archive held by the cache.
+     *
+     * @since 2.0.0
+     */
+    static final class Archive {
+
+        private final File file;
+
+        private final String sha1Checksum;
+
+        private final boolean reused;
+
+        private Archive(File file, String sha1Checksum, boolean reused) {
+            this.file = file;
+            this.sha1Checksum = sha1Checksum;
+            this.reused = reused;
+        }
+
+        /**
+         * @return the archive.
+         * @since 2.0.0
+         */
+        File getFile() {
+            return file;
+        }
+
+        /**
+         * @return the SHA-1 checksum of the archive.
+         * @since 2.0.0
+         */
+        String getSha1Checksum() {
+            return sha1Checksum;
+        }
+
+        /**
+         * @return {@code true} if the archive was built by an earlier run, {@code false} if it was just built.
+         * @since 2.0.0
+         */
+        boolean isReused() {
+            return reused;
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.codehaus.mojo.mrm.impl.maven;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 
 import org.codehaus.mojo.mrm.api.BaseFileEntry;
 import org.codehaus.mojo.mrm.api.DirectoryEntry;
@@ -99,4 +100,13 @@ public class ArtifactFileEntry extends BaseFileEntry {
             throw new IOException("Artifact does not exist", e);
         }
     }
+
+    @Override
+    public Path getPath() throws IOException {
+        try {
+            return store.getPath(artifact);
+        } catch (ArtifactNotFoundException e) {
+            throw new IOException("Artifact does not exist", e);
+        }
+    }
 }
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.impl.maven;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import org.codehaus.mojo.mrm.api.maven.Artifact;
+
+/**
+ * Single pass parser for Maven repository layout paths. It accepts exactly the paths matched by
+ * {@link ArtifactStoreFileSystem#METADATA}, {@link ArtifactStoreFileSystem#SNAPSHOT_ARTIFACT} and
+ * {@link ArtifactStoreFileSystem#ARTIFACT} without compiling or running any regular expression.
+ *
+ * @since 2.0.0
+ */
+final class ArtifactPathParser {
+
+    private static final String METADATA_NAME = "maven-metadata.xml";
+
+    private static final String SNAPSHOT = "SNAPSHOT";
+
+    private static final String SNAPSHOT_SUFFIX = "-" + SNAPSHOT;
+
+    /**
+     * Do not instantiate.
+     *
+     * @since 2.0.0
+     */
+    private ArtifactPathParser() {
+        throw new IllegalAccessError("Utility class");
+    }
+
+    /**
+     * Checks if the path is a <code>maven-metadata.xml</code> within at least one directory.
+     *
+     * @param path the absolute path, starting with a <code>/</code>.
+     * @return <code>true</code> if the path is a metadata path.
+     * @since 2.0.0
+     */
+    static boolean isMetadata(String path) {
+        int nameStart = path.length() - METADATA_NAME.length();
+        return nameStart >= 3 && path.startsWith(METADATA_NAME, nameStart) && isDirectories(path, 1, nameStart);
+    }
+
+    /**
+     * Parses an artifact path of the form <code>/group/path/artifactId/version/file</code>, where the file name must
+     * be consistent with the artifactId and version (and may carry a snapshot timestamp and build number if the
+     * version is a <code>-SNAPSHOT</code>).
+     *
+     * @param path the absolute path, starting with a <code>/</code>.
+     * @return the artifact or <code>null</code> if the path is not an artifact path.
+     * @since 2.0.0
+     */
+    static Artifact parseArtifact(String path) {
+        int nameStart = path.lastIndexOf('/') + 1;
+        if (nameStart < 2) {
+            return null;
+        }
+        int versionStart = path.lastIndexOf('/', nameStart - 2) + 1;
+        if (versionStart < 2 || versionStart == nameStart - 1) {
+            return null;
+        }
+        int artifactIdStart = path.lastIndexOf('/', versionStart - 2) + 1;
+        if (artifactIdStart < 2 || artifactIdStart == versionStart - 1) {
+            return null;
+        }
+        if (path.charAt(0) != '/' || !isDirectories(path, 1, artifactIdStart)) {
+            return null;
+        }
+        String artifactId = path.substring(artifactIdStart, versionStart - 1);
+        String version = path.substring(versionStart, nameStart - 1);
+
+        Artifact artifact = null;
+        if (version.endsWith(SNAPSHOT_SUFFIX) && version.length() > SNAPSHOT_SUFFIX.length()) {
+            artifact = parseSnapshot(path, artifactIdStart, nameStart, artifactId, version);
+        }
+        if (artifact == null) {
+            artifact = parseRelease(path, artifactIdStart, nameStart, artifactId, version);
+        }
+        return artifact;
+    }
+
+    private static Artifact parseRelease(
+            String path, int artifactIdStart, int nameStart, String artifactId, String version) {
+        int index = matchPrefix(path, nameStart, artifactId, version, version.length());
+        if (index == -1) {
+            return null;
+        }
+        return newArtifact(path, artifactIdStart, index, artifactId, version, null, null);
+    }
+
+    private static Artifact parseSnapshot(
+            String path, int artifactIdStart, int nameStart, String artifactId, String version) {
+        int index = matchPrefix(path, nameStart, artifactId, version, version.length() - SNAPSHOT_SUFFIX.length());
+        if (index == -1 || index >= path.length() || path.charAt(index) != '-') {
+            return null;
+        }
+        index++;
+        if (path.startsWith(SNAPSHOT, index)) {
+            return newArtifact(path, artifactIdStart, index + SNAPSHOT.length(), artifactId, version, null, null);
+        }
+        // yyyyMMdd.HHmmss-buildNumber
+        if (!isDigits(path, index, 8)
+                || !isChar(path, index + 8, '.')
+                || !isDigits(path, index + 9, 6)
+                || !isChar(path, index + 15, '-')) {
+            return null;
+        }
+        int buildNumberStart = index + 16;
+        int buildNumberEnd = buildNumberStart;
+        while (buildNumberEnd < path.length() && isDigit(path.charAt(buildNumberEnd))) {
+            buildNumberEnd++;
+        }
+        if (buildNumberEnd == buildNumberStart || buildNumberEnd - buildNumberStart > 9) {
+            return null;
+        }
+        long timestamp = LocalDate.of(parseInt(path, index, 4), 1, 1)
+                        // mirror the lenient Calendar arithmetic for out of range fields
+                        .plusMonths(parseInt(path, index + 4, 2) - 1L)
+                        .plusDays(parseInt(path, index + 6, 2) - 1L)
+                        .atStartOfDay()
+                        .plusHours(parseInt(path, index + 9, 2))
+                        .plusMinutes(parseInt(path, index + 11, 2))
+                        .plusSeconds(parseInt(path, index + 13, 2))
+                        .toEpochSecond(ZoneOffset.UTC)
+                * 1000L;
+        int buildNumber = parseInt(path, buildNumberStart, buildNumberEnd - buildNumberStart);
+        return newArtifact(path, artifactIdStart, buildNumberEnd, artifactId, version, timestamp, buildNumber);
+    }
+
+    /**
+     * Matches <code>artifactId-version</code> at the start of the file name.
+     *
+     * @return the index after the matched prefix or <code>-1</code> if the prefix does not match.
+     */
+    private static int matchPrefix(String path, int nameStart, String artifactId, String version, int versionLength) {
+        int index = nameStart;
+        if (!path.startsWith(artifactId, index)) {
+            return -1;
+        }
+        index += artifactId.length();
+        if (!isChar(path, index, '-') || !path.regionMatches(index + 1, version, 0, versionLength)) {
+            return -1;
+        }
+        return index + 1 + versionLength;
+    }
+
+    /**
+     * Parses the optional <code>-classifier</code> and the mandatory <code>.type</code> that end the file name and
+     * creates the artifact.
+     */
+    private static Artifact newArtifact(
+            String path,
+            int artifactIdStart,
+            int index,
+            String artifactId,
+            String version,
+            Long timestamp,
+            Integer buildNumber) {
+        String classifier = null;
+        if (isChar(path, index, '-')) {
+            int dot = path.indexOf('.', index + 1);
+            if (dot <= index + 1) {
+                return null;
+            }
+            classifier = path.substring(index + 1, dot);
+            index = dot;
+        }
+        if (!isChar(path, index, '.')) {
+            return null;
+        }
+        String type = path.substring(index + 1);
+        String groupId = path.substring(1, artifactIdStart - 1).replace('/', '.');
+        return new Artifact(groupId, artifactId, version, classifier, type, timestamp, buildNumber);
+    }
+
+    /**
+     * Checks that <code>path[start, end)</code> is a non-empty sequence of non-empty directory names, each followed
+     * by a <code>/</code>.
+     */
+    private static boolean isDirectories(String path, int start, int end) {
+        if (end <= start || path.charAt(end - 1) != '/') {
+            return false;
+        }
+        char previous = '/';
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c == '/' && previous == '/') {
+                return false;
+            }
+            previous = c;
+        }
+        return true;
+    }
+
+    private static boolean isChar(String path, int index, char c) {
+        return index < path.length() && path.charAt(index) == c;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isDigits(String path, int start, int count) {
+        if (start + count > path.length()) {
+            return false;
+        }
+        for (int i = start; i < start + count; i++) {
+            if (!isDigit(path.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int parseInt(String path, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            result = result * 10 + (path.charAt(i) - '0');
+        }
+        return result;
+    }
+}
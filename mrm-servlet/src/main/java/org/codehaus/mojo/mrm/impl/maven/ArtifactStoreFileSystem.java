@@ -19,19 +19,14 @@ package org.codehaus.mojo.mrm.impl.maven;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Comparator;
-import java.util.GregorianCalendar;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.TimeZone;
 import java.util.TreeSet;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.Strings;
 import org.apache.maven.artifact.repository.metadata.Metadata;
 import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Reader;
 import org.codehaus.mojo.mrm.api.BaseFileSystem;
@@ -89,6 +84,13 @@ public class ArtifactStoreFileSystem extends BaseFileSystem {
 
     /*package*/ static final Pattern ARCHETYPE_CATALOG = Pattern.compile("/archetype-catalog\\.xml");
 
+    /**
+     * The path of the archetype catalog.
+     *
+     * @since 2.0.0
+     */
+    private static final String ARCHETYPE_CATALOG_PATH = "/archetype-catalog.xml";
+
     /**
      * Regex to match a release artifact path.
      *
@@ -112,6 +114,13 @@ public class ArtifactStoreFileSystem extends BaseFileSystem {
      */
     private final ArtifactStore store;
 
+    /**
+     * The cache of serialized metadata of the backing {@link ArtifactStore}.
+     *
+     * @since 2.0.0
+     */
+    private final MetadataCache metadataCache;
+
     /**
      * Creates a {@link org.codehaus.mojo.mrm.api.FileSystem} backed by an {@link ArtifactStore}.
      *
@@ -120,6 +129,7 @@ public class ArtifactStoreFileSystem extends BaseFileSystem {
      */
     public ArtifactStoreFileSystem(ArtifactStore store) {
         this.store = store;
+        this.metadataCache = new MetadataCache(store);
     }
 
     @Override
@@ -139,7 +149,7 @@ public class ArtifactStoreFileSystem extends BaseFileSystem {
 
         try {
             store.getMetadataLastModified(path);
-            MetadataFileEntry entry = new MetadataFileEntry(this, directory, path, store);
+            MetadataFileEntry entry = new MetadataFileEntry(this, directory, path, store, metadataCache);
             if (!names.contains(entry.getName())) {
                 result.add(entry);
                 names.add(entry.getName());
@@ -200,26 +210,20 @@ public class ArtifactStoreFileSystem extends BaseFileSystem {
     }
 
     @Override
-    @SuppressWarnings("checkstyle:MethodLength")
     protected Entry get(DirectoryEntry parent, String name) {
-        String path = "/";
-        if (StringUtils.isNotEmpty(parent.toPath())) {
-            path += parent.toPath() + "/";
-        }
-        path += name;
-
         if ("favicon.ico".equals(name)) {
             return null;
         }
-        if (METADATA.matcher(path).matches()) {
-            MetadataFileEntry entry = new MetadataFileEntry(this, parent, parent.toPath(), store);
+        String path = toPath(parent, name);
+        if (ArtifactPathParser.isMetadata(path)) {
+            MetadataFileEntry entry = new MetadataFileEntry(this, parent, parent.toPath(), store, metadataCache);
             try {
                 entry.getLastModified();
                 return entry;
             } catch (IOException e) {
                 return null;
             }
-        } else if (ARCHETYPE_CATALOG.matcher(path).matches()) {
+        } else if (ARCHETYPE_CATALOG_PATH.equals(path)) {
             ArchetypeCatalogFileEntry entry = new ArchetypeCatalogFileEntry(this, parent, store);
             try {
                 entry.getLastModified();
@@ -227,93 +231,17 @@ public class ArtifactStoreFileSystem extends BaseFileSystem {
             } catch (IOException e) {
                 return null;
             }
-        } else {
-            Matcher snapshotArtifact = SNAPSHOT_ARTIFACT.matcher(path);
-            if (snapshotArtifact.matches()) {
-                String groupId =
-                        StringUtils.stripEnd(snapshotArtifact.group(1), "/").replace('/', '.');
-                String artifactId = snapshotArtifact.group(2);
-                String version = snapshotArtifact.group(3) + "-SNAPSHOT";
-                final String str = version;
-                Pattern rule =
-                        Pattern.compile("\\Q" + artifactId + "\\E-(?:\\Q" + Strings.CS.removeEnd(str, "-SNAPSHOT")
-                                + "\\E-(SNAPSHOT|(\\d{4})(\\d{2})(\\d{2})\\.(\\d{2})(\\d{2})(\\d{2})-(\\d+)))(?:-([^.]+))?"
-                                + "\\.([^/]*)");
-                Matcher matcher = rule.matcher(name);
-                if (!matcher.matches()) {
-                    String classifier = snapshotArtifact.group(5);
-                    String type = snapshotArtifact.group(6);
-                    if (classifier != null) {
-                        classifier = classifier.substring(1);
-                    }
-                    if (StringUtils.isEmpty(classifier)) {
-                        classifier = null;
-                    }
-                    return new ArtifactFileEntry(
-                            this, parent, new Artifact(groupId, artifactId, version, classifier, type), store);
-                }
-                if (matcher.group(1).equals("SNAPSHOT")) {
-                    Artifact artifact = new Artifact(groupId, artifactId, version, matcher.group(9), matcher.group(10));
-                    try {
-                        // check if artifact exist
-                        store.getSize(artifact);
-                        return new ArtifactFileEntry(this, parent, artifact, store);
-                    } catch (IOException | ArtifactNotFoundException e) {
-                        return null;
-                    }
-                }
-                try {
-                    Calendar cal = new GregorianCalendar();
-                    cal.setTimeZone(TimeZone.getTimeZone("GMT"));
-                    cal.set(Calendar.YEAR, Integer.parseInt(matcher.group(2)));
-                    cal.set(Calendar.MONTH, Integer.parseInt(matcher.group(3)) - 1);
-                    cal.set(Calendar.DAY_OF_MONTH, Integer.parseInt(matcher.group(4)));
-                    cal.set(Calendar.HOUR_OF_DAY, Integer.parseInt(matcher.group(5)));
-                    cal.set(Calendar.MINUTE, Integer.parseInt(matcher.group(6)));
-                    cal.set(Calendar.SECOND, Integer.parseInt(matcher.group(7)));
-                    cal.set(Calendar.MILLISECOND, 0);
-                    long timestamp = cal.getTimeInMillis();
-                    int buildNumber = Integer.parseInt(matcher.group(8));
-
-                    Artifact artifact = new Artifact(
-                            groupId, artifactId, version, matcher.group(9), matcher.group(10), timestamp, buildNumber);
-                    try {
-                        // check if artifact exist
-                        store.getSize(artifact);
-                        return new ArtifactFileEntry(this, parent, artifact, store);
-                    } catch (IOException | ArtifactNotFoundException e) {
-                        return null;
-                    }
-                } catch (NullPointerException e) {
-                    return new DefaultDirectoryEntry(this, parent, name);
-                }
-            } else {
-                Matcher matcher = ARTIFACT.matcher(path);
-                if (matcher.matches()) {
-                    String groupId = StringUtils.stripEnd(matcher.group(1), "/").replace('/', '.');
-                    String artifactId = matcher.group(2);
-                    String version = matcher.group(3);
-                    String classifier = matcher.group(5);
-                    String type = matcher.group(6);
-                    if (classifier != null) {
-                        classifier = classifier.substring(1);
-                    }
-                    if (StringUtils.isEmpty(classifier)) {
-                        classifier = null;
-                    }
-
-                    Artifact artifact = new Artifact(groupId, artifactId, version, classifier, type);
-                    try {
-                        // check if artifact exist
-                        store.getSize(artifact);
-                        return new ArtifactFileEntry(this, parent, artifact, store);
-                    } catch (ArtifactNotFoundException | IOException e) {
-                        return null;
-                    }
-                } else {
-                    return new DefaultDirectoryEntry(this, parent, name);
-                }
-            }
+        }
+        Artifact artifact = ArtifactPathParser.parseArtifact(path);
+        if (artifact == null) {
+            return new DefaultDirectoryEntry(this, parent, name);
+        }
+        try {
+            // check if artifact exist
+            store.getSize(artifact);
+            return new ArtifactFileEntry(this, parent, artifact, store);
+        } catch (ArtifactNotFoundException | IOException e) {
+            return null;
         }
     }
 
@@ -339,11 +267,12 @@ public class ArtifactStoreFileSystem extends BaseFileSystem {
                 }
 
                 store.setMetadata(path, metadata);
+                metadataCache.invalidate(path);
             } catch (XmlPullParserException e1) {
                 throw new IOException();
             }
 
-            return new MetadataFileEntry(this, parent, path, store);
+            return new MetadataFileEntry(this, parent, path, store, metadataCache);
         }
 
         if (name.startsWith("maven-metadata.xml") && (name.endsWith(".sha1") || name.endsWith(".md5"))) {
@@ -351,7 +280,7 @@ public class ArtifactStoreFileSystem extends BaseFileSystem {
             // return something != null
             // TODO add support for storing checksum files
             // https://github.com/mojohaus/mrm/issues/179
-            return new MetadataFileEntry(this, parent, path, store);
+            return new MetadataFileEntry(this, parent, path, store, metadataCache);
         }
 
         Artifact artifact = getArtifact(parent, name);
@@ -366,74 +295,19 @@ public class ArtifactStoreFileSystem extends BaseFileSystem {
     }
 
     private Artifact getArtifact(DirectoryEntry parent, String name) {
-        String path = "/";
-        if (StringUtils.isNotEmpty(parent.toPath())) {
-            path += parent.toPath() + "/";
-        }
-        path += name;
-
-        Matcher snapshotArtifact = SNAPSHOT_ARTIFACT.matcher(path);
-        if (snapshotArtifact.matches()) {
-            String groupId =
-                    StringUtils.stripEnd(snapshotArtifact.group(1), "/").replace('/', '.');
-            String artifactId = snapshotArtifact.group(2);
-            String version = snapshotArtifact.group(3) + "-SNAPSHOT";
-            final String str = version;
-            Pattern rule = Pattern.compile("\\Q" + artifactId + "\\E-(?:\\Q" + Strings.CS.removeEnd(str, "-SNAPSHOT")
-                    + "\\E-(SNAPSHOT|(\\d{4})(\\d{2})(\\d{2})\\.(\\d{2})(\\d{2})(\\d{2})-(\\d+)))(?:-([^.]+))?"
-                    + "\\.([^/]*)");
-            Matcher matcher = rule.matcher(name);
-            if (!matcher.matches()) {
-                String classifier = snapshotArtifact.group(5);
-                String type = snapshotArtifact.group(6);
-                if (classifier != null) {
-                    classifier = classifier.substring(1);
-                }
-                if (StringUtils.isEmpty(classifier)) {
-                    classifier = null;
-                }
-                return new Artifact(groupId, artifactId, version, classifier, type);
-            }
-            if (matcher.group(1).equals("SNAPSHOT")) {
-                return new Artifact(groupId, artifactId, version, matcher.group(9), matcher.group(10));
-            }
-            try {
-                Calendar cal = new GregorianCalendar();
-                cal.setTimeZone(TimeZone.getTimeZone("GMT"));
-                cal.set(Calendar.YEAR, Integer.parseInt(matcher.group(2)));
-                cal.set(Calendar.MONTH, Integer.parseInt(matcher.group(3)) - 1);
-                cal.set(Calendar.DAY_OF_MONTH, Integer.parseInt(matcher.group(4)));
-                cal.set(Calendar.HOUR_OF_DAY, Integer.parseInt(matcher.group(5)));
-                cal.set(Calendar.MINUTE, Integer.parseInt(matcher.group(6)));
-                cal.set(Calendar.SECOND, Integer.parseInt(matcher.group(7)));
-                cal.set(Calendar.MILLISECOND, 0);
-                long timestamp = cal.getTimeInMillis();
-                int buildNumber = Integer.parseInt(matcher.group(8));
-
-                return new Artifact(
-                        groupId, artifactId, version, matcher.group(9), matcher.group(10), timestamp, buildNumber);
-            } catch (NullPointerException e) {
-                return null;
-            }
-        } else {
-            Matcher matcher = ARTIFACT.matcher(path);
-            if (matcher.matches()) {
-                String groupId = StringUtils.stripEnd(matcher.group(1), "/").replace('/', '.');
-                String artifactId = matcher.group(2);
-                String version = matcher.group(3);
-                String classifier = matcher.group(5);
-                String type = matcher.group(6);
-                if (classifier != null) {
-                    classifier = classifier.substring(1);
-                }
-                if (StringUtils.isEmpty(classifier)) {
-                    classifier = null;
-                }
+        return ArtifactPathParser.parseArtifact(toPath(parent, name));
+    }
 
-                return new Artifact(groupId, artifactId, version, classifier, type);
-            } else {
-                return null;
-            }
-        }
+    /**
+     * Returns the absolute path of the named child of a directory.
+     *
+     * @param parent the directory.
+     * @param name   the name of the child.
+     * @return the absolute path of the child, starting with a <code>/</code>.
+     * @since 2.0.0
+     */
+    private static String toPath(DirectoryEntry parent, String name) {
+        String parentPath = parent.toPath();
+        return StringUtils.isEmpty(parentPath) ? "/" + name : "/" + parentPath + "/" + name;
     }
 }
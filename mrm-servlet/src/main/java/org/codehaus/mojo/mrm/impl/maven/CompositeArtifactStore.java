@@ -16,10 +16,20 @@
 
 package org.codehaus.mojo.mrm.impl.maven;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.maven.archetype.catalog.ArchetypeCatalog;
 import org.apache.maven.artifact.repository.metadata.Metadata;
@@ -29,13 +39,29 @@ import org.codehaus.mojo.mrm.api.maven.ArtifactNotFoundException;
 import org.codehaus.mojo.mrm.api.maven.ArtifactStore;
 import org.codehaus.mojo.mrm.api.maven.BaseArtifactStore;
 import org.codehaus.mojo.mrm.api.maven.MetadataNotFoundException;
+import org.codehaus.mojo.mrm.impl.NegativeCache;
 
 /**
  * An artifact store that serves as a union of multiple artifact stores.
  *
  * @since 1.0
  */
-public class CompositeArtifactStore extends BaseArtifactStore {
+public class CompositeArtifactStore extends BaseArtifactStore implements Closeable {
+
+    /**
+     * How long a store is usually not asked again for an artifact it does not have, in milliseconds. Only used when
+     * it is passed explicitly, the constructors without a time always ask every store.
+     *
+     * @since 2.0.0
+     */
+    public static final long DEFAULT_NEGATIVE_CACHE_TTL = 5000L;
+
+    /**
+     * The maximum number of missing artifacts remembered per store.
+     *
+     * @since 2.0.0
+     */
+    private static final int NEGATIVE_CACHE_SIZE = 10000;
 
     /**
      * The backing artifact stores, in order of priority.
@@ -45,13 +71,63 @@ public class CompositeArtifactStore extends BaseArtifactStore {
     private final ArtifactStore[] stores;
 
     /**
-     * Creates a new artifact store resulting from the union of multiple artifact stores.
+     * The executor used to query the backing artifact stores concurrently or <code>null</code> to query them in
+     * sequence.
+     *
+     * @since 2.0.0
+     */
+    private final Executor executor;
+
+    /**
+     * The artifacts that each of the backing artifact stores recently reported as missing, so that we do not ask
+     * again.
+     *
+     * @since 2.0.0
+     */
+    private final List<NegativeCache<Artifact>> misses;
+
+    /**
+     * Creates a new artifact store resulting from the union of multiple artifact stores. Every store is asked for
+     * every artifact.
      *
      * @param stores the artifact stores.
      * @since 1.0
      */
     public CompositeArtifactStore(ArtifactStore[] stores) {
+        this(stores, null);
+    }
+
+    /**
+     * Creates a new artifact store resulting from the union of multiple artifact stores that looks artifacts up in
+     * all the stores concurrently. The artifact is still taken from the first store (in order of priority) that has
+     * it, lookups in the stores of lower priority are cancelled as soon as that store answers. Every store is asked
+     * for every artifact.
+     *
+     * @param stores   the artifact stores.
+     * @param executor the executor to run the lookups on or <code>null</code> to look up in sequence.
+     * @since 2.0.0
+     */
+    public CompositeArtifactStore(ArtifactStore[] stores, Executor executor) {
+        this(stores, executor, 0L);
+    }
+
+    /**
+     * Creates a new artifact store resulting from the union of multiple artifact stores that remembers for the
+     * specified time which stores do not have an artifact, so that lookups go straight to the store that has it.
+     *
+     * @param stores              the artifact stores.
+     * @param executor            the executor to run the lookups on or <code>null</code> to look up in sequence.
+     * @param negativeCacheMillis how long to remember that a store does not have an artifact, in milliseconds,
+     *                            or <code>0</code> to always ask every store.
+     * @since 2.0.0
+     */
+    public CompositeArtifactStore(ArtifactStore[] stores, Executor executor, long negativeCacheMillis) {
         this.stores = stores;
+        this.executor = executor;
+        this.misses = new ArrayList<>(stores.length);
+        for (int i = 0; i < stores.length; i++) {
+            misses.add(new NegativeCache<>(NEGATIVE_CACHE_SIZE, negativeCacheMillis, TimeUnit.MILLISECONDS));
+        }
     }
 
     @Override
@@ -105,50 +181,27 @@ public class CompositeArtifactStore extends BaseArtifactStore {
 
     @Override
     public long getLastModified(Artifact artifact) throws IOException, ArtifactNotFoundException {
-        for (ArtifactStore store : stores) {
-            try {
-                return store.getLastModified(artifact);
-            } catch (ArtifactNotFoundException e) {
-                // ignore
-            }
-        }
-        throw new ArtifactNotFoundException(artifact);
+        return lookup(artifact, store -> store.getLastModified(artifact), null);
     }
 
     @Override
     public long getSize(Artifact artifact) throws IOException, ArtifactNotFoundException {
-        for (ArtifactStore store : stores) {
-            try {
-                return store.getSize(artifact);
-            } catch (ArtifactNotFoundException e) {
-                // ignore
-            }
-        }
-        throw new ArtifactNotFoundException(artifact);
+        return lookup(artifact, store -> store.getSize(artifact), null);
     }
 
     @Override
     public InputStream get(Artifact artifact) throws IOException, ArtifactNotFoundException {
-        for (ArtifactStore store : stores) {
-            try {
-                return store.get(artifact);
-            } catch (ArtifactNotFoundException e) {
-                // ignore
-            }
-        }
-        throw new ArtifactNotFoundException(artifact);
+        return lookup(artifact, store -> store.get(artifact), CompositeArtifactStore::closeQuietly);
     }
 
     @Override
     public String getSha1Checksum(Artifact artifact) throws IOException, ArtifactNotFoundException {
-        for (ArtifactStore store : stores) {
-            try {
-                return store.getSha1Checksum(artifact);
-            } catch (ArtifactNotFoundException e) {
-                // ignore
-            }
-        }
-        throw new ArtifactNotFoundException(artifact);
+        return lookup(artifact, store -> store.getSha1Checksum(artifact), null);
+    }
+
+    @Override
+    public Path getPath(Artifact artifact) throws IOException, ArtifactNotFoundException {
+        return lookup(artifact, store -> store.getPath(artifact), null);
     }
 
     @Override
@@ -241,4 +294,189 @@ public class CompositeArtifactStore extends BaseArtifactStore {
         }
         return lastModified;
     }
+
+    /**
+     * Looks an artifact up in the backing stores, in sequence or concurrently depending on whether we have an
+     * executor. Either way the result of the store with the highest priority that has the artifact wins.
+     *
+     * @param artifact the artifact.
+     * @param lookup   the lookup to perform against each store.
+     * @param discard  releases a result that lost to the result of a store with higher priority, may be
+     *                 <code>null</code>.
+     * @param <T>      the type of result.
+     * @return the result of the store with the highest priority that has the artifact.
+     * @throws IOException               if the store with the highest priority that got to answer failed.
+     * @throws ArtifactNotFoundException if none of the stores has the artifact.
+     * @since 2.0.0
+     */
+    private <T> T lookup(Artifact artifact, Lookup<T> lookup, Discard<T> discard)
+            throws IOException, ArtifactNotFoundException {
+        if (executor == null || stores.length < 2) {
+            for (int i = 0; i < stores.length; i++) {
+                if (misses.get(i).contains(artifact)) {
+                    continue;
+                }
+                try {
+                    return lookup.apply(stores[i]);
+                } catch (ArtifactNotFoundException e) {
+                    misses.get(i).add(artifact);
+                }
+            }
+            throw new ArtifactNotFoundException(artifact);
+        }
+
+        List<LookupTask<T>> tasks = new ArrayList<>(stores.length);
+        for (int i = 0; i < stores.length; i++) {
+            LookupTask<T> task = misses.get(i).contains(artifact) ? null : new LookupTask<>(stores[i], lookup, discard);
+            tasks.add(task);
+            if (task != null) {
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    task.run();
+                }
+            }
+        }
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                if (tasks.get(i) == null) {
+                    continue;
+                }
+                try {
+                    T result = tasks.get(i).get();
+                    cancel(tasks, i + 1);
+                    return result;
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof ArtifactNotFoundException)) {
+                        cancel(tasks, i + 1);
+                        throw rethrow(e.getCause());
+                    }
+                    misses.get(i).add(artifact);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(tasks, 0);
+            throw new InterruptedIOException("Interrupted while looking up " + artifact);
+        }
+        throw new ArtifactNotFoundException(artifact);
+    }
+
+    /**
+     * Closes the backing artifact stores that hold resources.
+     *
+     * @throws IOException if a store could not be closed, after all of them have been tried.
+     * @since 2.0.0
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (ArtifactStore store : stores) {
+            if (store instanceof Closeable) {
+                try {
+                    ((Closeable) store).close();
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static <T> void cancel(List<LookupTask<T>> tasks, int from) {
+        for (int i = from; i < tasks.size(); i++) {
+            if (tasks.get(i) != null) {
+                tasks.get(i).cancelAndDiscard();
+            }
+        }
+    }
+
+    private static IOException rethrow(Throwable cause) {
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IOException(cause);
+    }
+
+    private static void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * A lookup against a single store.
+     *
+     * @param <T> the type of result.
+     * @since 2.0.0
+     */
+    @FunctionalInterface
+    private interface Lookup<T> {
+        T apply(ArtifactStore store) throws IOException, ArtifactNotFoundException;
+    }
+
+    /**
+     * Releases the result of a lookup that lost.
+     *
+     * @param <T> the type of result.
+     * @since 2.0.0
+     */
+    @FunctionalInterface
+    private interface Discard<T> {
+        void discard(T result);
+    }
+
+    /**
+     * A lookup against a single store that releases its result if it completes after it lost.
+     *
+     * @param <T> the type of result.
+     * @since 2.0.0
+     */
+    private static final class LookupTask<T> extends FutureTask<T> {
+
+        private final Discard<T> discard;
+
+        private LookupTask(ArtifactStore store, Lookup<T> lookup, Discard<T> discard) {
+            super(() -> lookup.apply(store));
+            this.discard = discard;
+        }
+
+        @Override
+        protected void set(T result) {
+            super.set(result);
+            if (isCancelled()) {
+                discard(result);
+            }
+        }
+
+        private void cancelAndDiscard() {
+            if (!cancel(true) && !isCancelled()) {
+                try {
+                    discard(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    // nothing to release
+                }
+            }
+        }
+
+        private void discard(T result) {
+            if (discard != null && result != null) {
+                discard.discard(result);
+            }
+        }
+    }
 }
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.impl.maven;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.codehaus.mojo.mrm.impl.transform.FileTransformPlan;
+import org.codehaus.mojo.mrm.impl.transform.TransformDirectiveSource;
+import org.codehaus.plexus.util.DirectoryScanner;
+
+/**
+ * Generates the zip archive of an exploded directory while it is being read, without writing it to disk. The same
+ * directory always generates the same bytes: entries are sorted by name and all carry the modification time of the
+ * directory. The directory is listed once, so that every read of the archive has the entries and size that were
+ * measured.
+ *
+ * @since 2.0.0
+ */
+final class DirectoryZip {
+
+    /**
+     * The extensions of the directories that can be generated as a zip archive.
+     *
+     * @since 2.0.0
+     */
+    static final Set<String> EXTENSIONS =
+            Collections.unmodifiableSet(new TreeSet<>(Arrays.asList("ear", "jar", "war", "zip")));
+
+    private static final String MANIFEST_DIRECTORY = "META-INF/";
+
+    private static final String MANIFEST = "META-INF/MANIFEST.MF";
+
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * The directory to archive.
+     *
+     * @since 2.0.0
+     */
+    private final File directory;
+
+    /**
+     * The transformation applied to the files of the directory, or {@code null} if none.
+     *
+     * @since 2.0.0
+     */
+    private final TransformDirectiveSource transformDirectiveSource;
+
+    /**
+     * The entries of the archive, {@code null} until the directory is listed.
+     * <p/>
+     * Guarded by {@code this}.
+     *
+     * @since 2.0.0
+     */
+    private List<Entry> entries;
+
+    /**
+     * The modification time of the directory when it was listed.
+     * <p/>
+     * Guarded by {@code this}.
+     *
+     * @since 2.0.0
+     */
+    private long lastModified;
+
+    /**
+     * Creates the zip archive of a directory.
+     *
+     * @param directory the directory to archive.
+     * @param transformDirectiveSource the transformation applied to the files of the directory, may be {@code null}.
+     * @since 2.0.0
+     */
+    DirectoryZip(File directory, TransformDirectiveSource transformDirectiveSource) {
+        this.directory = directory;
+        this.transformDirectiveSource = transformDirectiveSource;
+    }
+
+    /**
+     * @return the directory to archive.
+     * @since 2.0.0
+     */
+    File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns whether the specified directory can be generated as a zip archive.
+     *
+     * @param directory the directory.
+     * @return {@code true} if the directory can be generated as a zip archive.
+     * @since 2.0.0
+     */
+    static boolean supports(File directory) {
+        return EXTENSIONS.contains(org.codehaus.plexus.util.FileUtils.extension(directory.getName()));
+    }
+
+    /**
+     * Opens the archive. The directory is listed the first time the archive is opened, later opens reuse that listing
+     * and its modification time. The files are read as the archive is.
+     *
+     * @return the archive.
+     * @since 2.0.0
+     */
+    synchronized InputStream open() {
+        if (entries == null) {
+            lastModified = directory.lastModified();
+            entries = Collections.unmodifiableList(entries());
+        }
+        return new ZipStream(entries, lastModified);
+    }
+
+    /**
+     * Lists the entries of the archive, using the same default excludes as the archivers do. A jar-like archive
+     * starts with a manifest, which is generated when the directory has none.
+     *
+     * @return the entries in the order they are written.
+     * @since 2.0.0
+     */
+    private List<Entry> entries() {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir(directory);
+        scanner.addDefaultExcludes();
+        scanner.scan();
+
+        FileTransformPlan plan = transformDirectiveSource != null ? transformDirectiveSource.plan() : null;
+        List<Entry> entries = new ArrayList<>();
+        for (String path : scanner.getIncludedDirectories()) {
+            if (!path.isEmpty()) {
+                entries.add(new Entry(path.replace(File.separatorChar, '/') + '/', null, null));
+            }
+        }
+        for (String path : scanner.getIncludedFiles()) {
+            String source = path.replace(File.separatorChar, '/');
+            String name = plan != null ? plan.filename().apply(source) : source;
+            entries.add(new Entry(name, new File(directory, path), source));
+        }
+        entries.sort(Comparator.comparing(entry -> entry.name));
+
+        if (!"zip".equals(org.codehaus.plexus.util.FileUtils.extension(directory.getName()))) {
+            Entry manifest = null;
+            Entry manifestDirectory = new Entry(MANIFEST_DIRECTORY, null, null);
+            for (Iterator<Entry> i = entries.iterator(); i.hasNext(); ) {
+                Entry entry = i.next();
+                if (entry.name.equals(MANIFEST)) {
+                    manifest = entry;
+                    i.remove();
+                } else if (entry.name.equals(MANIFEST_DIRECTORY)) {
+                    i.remove();
+                }
+            }
+            if (manifest == null) {
+                manifest = new Entry(MANIFEST, null, null);
+            }
+            entries.add(0, manifest);
+            entries.add(0, manifestDirectory);
+        }
+        return entries;
+    }
+
+    /**
+     * Opens the content of an entry.
+     *
+     * @param entry the entry.
+     * @return the content.
+     * @throws IOException if the content could not be opened.
+     * @since 2.0.0
+     */
+    private InputStream open(Entry entry) throws IOException {
+        if (entry.file == null) {
+            // the generated manifest
+            return new ByteArrayInputStream("Manifest-Version: 1.0\r\nCreated-By: Mock Repository Manager\r\n\r\n"
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        InputStream inputStream = Files.newInputStream(entry.file.toPath());
+        if (transformDirectiveSource != null) {
+            return transformDirectiveSource.plan().content(entry.source).apply(inputStream);
+        }
+        return inputStream;
+    }
+
+    /**
+     * An entry of the archive.
+     *
+     * @since 2.0.0
+     */
+    private static final class Entry {
+
+        /**
+         * The name of the entry, ending with {@code /} for a directory.
+         */
+        private final String name;
+
+        /**
+         * The file holding the content, {@code null} for a directory or a generated manifest.
+         */
+        private final File file;
+
+        /**
+         * The path of the file relative to the archived directory, before any transformation.
+         */
+        private final String source;
+
+        private Entry(String name, File file, String source) {
+            this.name = name;
+            this.file = file;
+            this.source = source;
+        }
+
+        private boolean isDirectory() {
+            return name.endsWith("/");
+        }
+    }
+
+    /**
+     * Reads the archive by writing just enough of it to satisfy each read.
+     *
+     * @since 2.0.0
+     */
+    private final class ZipStream extends InputStream {
+
+        private final Buffer buffer = new Buffer();
+
+        private final ZipOutputStream zip = new ZipOutputStream(buffer);
+
+        private final Iterator<Entry> entries;
+
+        private final long lastModified;
+
+        private final byte[] chunk = new byte[CHUNK_SIZE];
+
+        /**
+         * The content of the entry being written, if any.
+         */
+        private InputStream current;
+
+        /**
+         * The position of the next byte to read from the buffer.
+         */
+        private int position;
+
+        private boolean finished;
+
+        private ZipStream(List<Entry> entries, long lastModified) {
+            this.entries = entries.iterator();
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (position == buffer.size()) {
+                buffer.reset();
+                position = 0;
+                if (!fill()) {
+                    return -1;
+                }
+            }
+            int count = Math.min(len, buffer.size() - position);
+            System.arraycopy(buffer.bytes(), position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.size() - position;
+        }
+
+        /**
+         * Writes the next part of the archive into the buffer. A part may compress to nothing.
+         *
+         * @return {@code false} once the whole archive was written.
+         * @throws IOException if a file could not be read.
+         */
+        private boolean fill() throws IOException {
+            if (finished) {
+                return false;
+            }
+            if (current != null) {
+                int count = current.read(chunk);
+                if (count >= 0) {
+                    zip.write(chunk, 0, count);
+                } else {
+                    current.close();
+                    current = null;
+                    zip.closeEntry();
+                }
+            } else if (entries.hasNext()) {
+                Entry entry = entries.next();
+                ZipEntry zipEntry = new ZipEntry(entry.name);
+                zipEntry.setTime(lastModified);
+                zip.putNextEntry(zipEntry);
+                if (entry.isDirectory()) {
+                    zip.closeEntry();
+                } else {
+                    current = open(entry);
+                }
+            } else {
+                finished = true;
+                // also releases the native memory of the deflater
+                zip.close();
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (current != null) {
+                    current.close();
+                    current = null;
+                }
+            } finally {
+                if (!finished) {
+                    finished = true;
+                    zip.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * A buffer whose bytes can be read without copying them.
+     *
+     * @since 2.0.0
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        private Buffer() {
+            super(CHUNK_SIZE * 2);
+        }
+
+        private byte[] bytes() {
+            return buf;
+        }
+    }
+}
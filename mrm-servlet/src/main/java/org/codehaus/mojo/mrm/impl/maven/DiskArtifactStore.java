@@ -249,6 +249,11 @@ public class DiskArtifactStore extends BaseArtifactStore {
         return Files.newInputStream(file.toPath());
     }
 
+    @Override
+    public Path getPath(Artifact artifact) throws IOException, ArtifactNotFoundException {
+        return getFileByBasename(artifact).toPath();
+    }
+
     @Override
     public void set(Artifact artifact, InputStream content) throws IOException {
         if (!canWrite) {
@@ -0,0 +1,1054 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.impl.maven;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.archetype.catalog.ArchetypeCatalog;
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Reader;
+import org.codehaus.mojo.mrm.api.maven.ArchetypeCatalogNotFoundException;
+import org.codehaus.mojo.mrm.api.maven.Artifact;
+import org.codehaus.mojo.mrm.api.maven.ArtifactNotFoundException;
+import org.codehaus.mojo.mrm.api.maven.BaseArtifactStore;
+import org.codehaus.mojo.mrm.api.maven.MetadataNotFoundException;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * An artifact store that proxies remote repositories directly over HTTP, without needing a running Maven build.
+ * Downloaded files are kept in a cache directory with the standard repository layout. They can be read while they are
+ * being downloaded. Concurrent readers of the same file share its download. Only <code>-SNAPSHOT</code> artifacts
+ * without a timestamp and metadata are fetched again. The store holds threads and connections until it is
+ * {@link #close() closed}.
+ *
+ * @since 2.0.0
+ */
+public class HttpProxyArtifactStore extends BaseArtifactStore implements Closeable {
+
+    /**
+     * The default maximum number of requests sent to the remote repositories at the same time.
+     *
+     * @since 2.0.0
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 16;
+
+    /**
+     * How long, by default, fetched metadata is reused before it is fetched again, in milliseconds.
+     *
+     * @since 2.0.0
+     */
+    public static final long DEFAULT_METADATA_UPDATE_INTERVAL = 60000L;
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final String ARCHETYPE_CATALOG = "archetype-catalog.xml";
+
+    /**
+     * The directory of the cache the <code>.part</code> files are written to, kept apart from the cached files so that
+     * they are never listed.
+     */
+    private static final String PART_DIRECTORY = ".downloads";
+
+    /**
+     * A well-formed SHA-1 checksum.
+     */
+    private static final Pattern SHA1_CHECKSUM = Pattern.compile("[0-9a-fA-F]{40}");
+
+    /**
+     * The remote repositories, in order of precedence, each ending with a <code>/</code>.
+     *
+     * @since 2.0.0
+     */
+    private final List<URI> remotes;
+
+    /**
+     * The cache directory.
+     *
+     * @since 2.0.0
+     */
+    private final File root;
+
+    /**
+     * The cached files, also used to list what is known of the remote repositories.
+     *
+     * @since 2.0.0
+     */
+    private final DiskArtifactStore cache;
+
+    /**
+     * The client, which pools its connections.
+     *
+     * @since 2.0.0
+     */
+    private final HttpClient client;
+
+    /**
+     * Bounds the number of requests in progress, a permit is held until the response body is closed.
+     *
+     * @since 2.0.0
+     */
+    private final Semaphore permits;
+
+    /**
+     * How long fetched metadata is reused, in nanoseconds.
+     *
+     * @since 2.0.0
+     */
+    private final long metadataUpdateIntervalNanos;
+
+    /**
+     * The metadata fetched so far, keyed by path.
+     *
+     * @since 2.0.0
+     */
+    private final Map<String, FetchedMetadata> metadata = new ConcurrentHashMap<>();
+
+    /**
+     * The downloads in progress, keyed by cache file, so that concurrent readers share a download.
+     *
+     * @since 2.0.0
+     */
+    private final Map<File, Download> downloads = new ConcurrentHashMap<>();
+
+    /**
+     * The headers of <code>-SNAPSHOT</code> artifacts without timestamp, which are fetched on every request and so
+     * have no download to answer their size and last modified time from. They are reused for as long as metadata is.
+     *
+     * @since 2.0.0
+     */
+    private final Map<Artifact, Headers> snapshotHeaders = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the downloads, whose number is bounded by {@link #permits}.
+     *
+     * @since 2.0.0
+     */
+    private final ExecutorService copier;
+
+    /**
+     * Creates a new artifact store with the default concurrency and metadata update interval.
+     *
+     * @param remotes the URLs of the remote repositories, in order of precedence.
+     * @param root    the cache directory.
+     * @since 2.0.0
+     */
+    public HttpProxyArtifactStore(List<URI> remotes, File root) {
+        this(remotes, root, DEFAULT_MAX_CONCURRENT_REQUESTS, DEFAULT_METADATA_UPDATE_INTERVAL);
+    }
+
+    /**
+     * Creates a new artifact store.
+     *
+     * @param remotes                the URLs of the remote repositories, in order of precedence.
+     * @param root                   the cache directory.
+     * @param maxConcurrentRequests  the maximum number of requests sent to the remote repositories at the same time.
+     * @param metadataUpdateInterval how long fetched metadata is reused before it is fetched again, in milliseconds.
+     * @since 2.0.0
+     */
+    public HttpProxyArtifactStore(
+            List<URI> remotes, File root, int maxConcurrentRequests, long metadataUpdateInterval) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("maxConcurrentRequests must be at least 1");
+        }
+        List<URI> normalized = new ArrayList<>(remotes.size());
+        for (URI remote : remotes) {
+            String url = remote.toString();
+            normalized.add(url.endsWith("/") ? remote : URI.create(url + '/'));
+        }
+        this.remotes = Collections.unmodifiableList(normalized);
+        this.root = root;
+        this.cache = new DiskArtifactStore(root);
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.metadataUpdateIntervalNanos = TimeUnit.MILLISECONDS.toNanos(metadataUpdateInterval);
+        AtomicInteger threads = new AtomicInteger();
+        this.copier = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "mrm-http-proxy-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .build();
+    }
+
+    @Override
+    public Set<String> getGroupIds(String parentGroupId) {
+        Set<String> groupIds = cache.getGroupIds(parentGroupId);
+        if (StringUtils.isEmpty(parentGroupId) && groupIds.contains(PART_DIRECTORY)) {
+            groupIds = new HashSet<>(groupIds);
+            groupIds.remove(PART_DIRECTORY);
+        }
+        return groupIds;
+    }
+
+    @Override
+    public Set<String> getArtifactIds(String groupId) {
+        return cache.getArtifactIds(groupId);
+    }
+
+    @Override
+    public Set<String> getVersions(String groupId, String artifactId) {
+        return cache.getVersions(groupId, artifactId);
+    }
+
+    @Override
+    public Set<Artifact> getArtifacts(String groupId, String artifactId, String version) {
+        return cache.getArtifacts(groupId, artifactId, version);
+    }
+
+    @Override
+    public long getLastModified(Artifact artifact) throws IOException, ArtifactNotFoundException {
+        return getHeaders(artifact).lastModified;
+    }
+
+    @Override
+    public long getSize(Artifact artifact) throws IOException, ArtifactNotFoundException {
+        return getHeaders(artifact).size;
+    }
+
+    @Override
+    public InputStream get(Artifact artifact) throws IOException, ArtifactNotFoundException {
+        File file = getCachedFile(artifact);
+        if (file != null) {
+            return Files.newInputStream(file.toPath());
+        }
+        InputStream result =
+                isCacheable(artifact) ? download(toFile(artifact), toPath(artifact)) : fetch(toPath(artifact));
+        if (result == null) {
+            throw new ArtifactNotFoundException(artifact);
+        }
+        return result;
+    }
+
+    @Override
+    public Path getPath(Artifact artifact) {
+        File file = getCachedFile(artifact);
+        return file == null ? null : file.toPath();
+    }
+
+    @Override
+    public String getSha1Checksum(Artifact artifact) throws IOException, ArtifactNotFoundException {
+        // a checksum without its artifact does not make the artifact exist
+        getHeaders(artifact);
+        File sha1File = new File(toFile(artifact).getPath() + ".sha1");
+        boolean cacheable = isCacheable(artifact);
+        if (cacheable && sha1File.isFile()) {
+            return toSha1Checksum(Files.readAllBytes(sha1File.toPath()));
+        }
+        String path = toPath(artifact) + ".sha1";
+        InputStream content = cacheable ? download(sha1File, path) : fetch(path);
+        if (content == null) {
+            return null;
+        }
+        try (InputStream is = content) {
+            return toSha1Checksum(IOUtils.toByteArray(is));
+        }
+    }
+
+    /**
+     * Extracts the checksum from the content of a <code>.sha1</code> file, which may carry the file name after it.
+     *
+     * @param content the content of the file.
+     * @return the lower case hex checksum or <code>null</code> if the file does not start with one.
+     */
+    private static String toSha1Checksum(byte[] content) {
+        String[] tokens = new String(content, StandardCharsets.US_ASCII).trim().split("\\s+", 2);
+        return SHA1_CHECKSUM.matcher(tokens[0]).matches() ? tokens[0].toLowerCase(Locale.ROOT) : null;
+    }
+
+    @Override
+    public Metadata getMetadata(String path) throws IOException, MetadataNotFoundException {
+        // callers may merge into the result, so each gets its own copy of the shared metadata
+        return getFetchedMetadata(path).metadata.clone();
+    }
+
+    @Override
+    public long getMetadataLastModified(String path) throws IOException, MetadataNotFoundException {
+        return getFetchedMetadata(path).lastModified;
+    }
+
+    @Override
+    public ArchetypeCatalog getArchetypeCatalog() throws IOException, ArchetypeCatalogNotFoundException {
+        fetchArchetypeCatalog();
+        return cache.getArchetypeCatalog();
+    }
+
+    @Override
+    public long getArchetypeCatalogLastModified() throws IOException, ArchetypeCatalogNotFoundException {
+        fetchArchetypeCatalog();
+        return cache.getArchetypeCatalogLastModified();
+    }
+
+    /**
+     * Stops the downloads in progress and releases the threads and connections of this store. Downloads that are
+     * stopped leave nothing in the cache, and no new download can be started afterwards.
+     *
+     * @throws IOException if the client could not be closed.
+     * @since 2.0.0
+     */
+    @Override
+    public void close() throws IOException {
+        copier.shutdownNow();
+        for (Download download : downloads.values()) {
+            download.abort();
+        }
+        // HttpClient is only AutoCloseable from Java 21 on, before that its threads go away once unreachable
+        if (client instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) client).close();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * Ensures the archetype catalog of the first remote repository that has one is in the cache directory.
+     *
+     * @throws IOException                      if the catalog could not be fetched.
+     * @throws ArchetypeCatalogNotFoundException if no remote repository has a catalog.
+     */
+    private void fetchArchetypeCatalog() throws IOException, ArchetypeCatalogNotFoundException {
+        File file = new File(root, ARCHETYPE_CATALOG);
+        if (file.isFile()) {
+            return;
+        }
+        InputStream content = download(file, ARCHETYPE_CATALOG);
+        if (content == null) {
+            throw new ArchetypeCatalogNotFoundException();
+        }
+        try (InputStream is = content) {
+            IOUtils.consume(is);
+        }
+    }
+
+    /**
+     * Fetches content that is not cached.
+     *
+     * @param path the path of the content.
+     * @return the body of the response of the first remote repository that has the content or <code>null</code> if
+     *         none has it.
+     * @throws IOException if the content could not be fetched.
+     */
+    private InputStream fetch(String path) throws IOException {
+        HttpResponse<InputStream> response = send(path, "GET");
+        return response == null ? null : new UpstreamInputStream(response.body());
+    }
+
+    /**
+     * Returns the size and last modified time of an artifact. A cached artifact answers them from its file. Otherwise
+     * the download of the artifact is started, so that the request that follows reads the same download, and they
+     * are answered from the headers of its response.
+     *
+     * @param artifact the artifact.
+     * @return the headers.
+     * @throws IOException               if the artifact could not be asked for.
+     * @throws ArtifactNotFoundException if no remote repository has the artifact.
+     */
+    private Headers getHeaders(Artifact artifact) throws IOException, ArtifactNotFoundException {
+        File file = getCachedFile(artifact);
+        if (file != null) {
+            return new Headers(file.length(), file.lastModified(), 0L);
+        }
+        Headers headers;
+        if (isCacheable(artifact)) {
+            headers = startDownload(toFile(artifact), toPath(artifact)).awaitHeaders();
+        } else {
+            headers = snapshotHeaders.get(artifact);
+            if (headers == null || headers.isExpired()) {
+                HttpResponse<InputStream> response = head(artifact);
+                headers = Headers.of(response, System.nanoTime() + metadataUpdateIntervalNanos);
+                snapshotHeaders.put(artifact, headers);
+            }
+        }
+        if (headers == null) {
+            throw new ArtifactNotFoundException(artifact);
+        }
+        return headers;
+    }
+
+    /**
+     * Downloads content into its cache file, or joins the download already in progress. The content is readable as
+     * soon as the first bytes have arrived, without waiting for the rest of the download.
+     *
+     * @param target the cache file.
+     * @param path   the path of the content.
+     * @return the content or <code>null</code> if no remote repository has it.
+     * @throws IOException if the content could not be downloaded.
+     */
+    private InputStream download(File target, String path) throws IOException {
+        return startDownload(target, path).open();
+    }
+
+    /**
+     * Starts downloading content into its cache file, unless it is already being downloaded.
+     *
+     * @param target the cache file.
+     * @param path   the path of the content.
+     * @return the download.
+     * @throws IOException if the content could not be requested.
+     */
+    private Download startDownload(File target, String path) throws IOException {
+        if (copier.isShutdown()) {
+            throw new IOException("The store is closed, " + target.getName() + " cannot be downloaded");
+        }
+        Download download = new Download(target);
+        Download existing = downloads.putIfAbsent(target, download);
+        if (existing != null) {
+            return existing;
+        }
+        HttpResponse<InputStream> response = null;
+        try {
+            // a download that completed while we were getting here leaves nothing to fetch
+            if (!target.isFile()) {
+                response = send(path, "GET");
+            }
+        } catch (IOException | RuntimeException e) {
+            download.fail(e);
+            throw e;
+        }
+        download.start(response);
+        return download;
+    }
+
+    /**
+     * Returns the fetched metadata, fetching it only if it has not been fetched yet or if the previous fetch is older
+     * than the update interval.
+     *
+     * @param path the path of the metadata.
+     * @return the metadata merged from all the remote repositories that have it.
+     * @throws IOException               if the metadata could not be fetched.
+     * @throws MetadataNotFoundException if no remote repository has the metadata.
+     */
+    private FetchedMetadata getFetchedMetadata(String path) throws IOException, MetadataNotFoundException {
+        String key = StringUtils.strip(path, "/");
+        FetchedMetadata result = metadata.get(key);
+        if (result != null && !result.isExpired()) {
+            return result;
+        }
+        String metadataPath = key.isEmpty() ? "maven-metadata.xml" : key + "/maven-metadata.xml";
+        Metadata merged = null;
+        long lastModified = 0L;
+        IOException failure = null;
+        for (URI remote : remotes) {
+            HttpResponse<InputStream> response;
+            try {
+                response = send(remote, metadataPath, "GET");
+            } catch (IOException e) {
+                failure = e;
+                continue;
+            }
+            if (response == null) {
+                continue;
+            }
+            try (InputStream is = new UpstreamInputStream(response.body())) {
+                Metadata fetched = new MetadataXpp3Reader().read(is);
+                if (merged == null) {
+                    merged = fetched;
+                } else {
+                    merged.merge(fetched);
+                }
+                lastModified = Math.max(lastModified, getLastModified(response));
+            } catch (XmlPullParserException e) {
+                failure = new IOException(e.getMessage(), e);
+            }
+        }
+        if (merged == null) {
+            metadata.remove(key);
+            if (failure != null) {
+                throw failure;
+            }
+            throw new MetadataNotFoundException(path);
+        }
+        result = new FetchedMetadata(
+                merged,
+                lastModified > 0 ? lastModified : System.currentTimeMillis(),
+                System.nanoTime() + metadataUpdateIntervalNanos);
+        metadata.put(key, result);
+        return result;
+    }
+
+    /**
+     * Sends a <code>HEAD</code> request for the artifact.
+     *
+     * @param artifact the artifact.
+     * @return the response of the first remote repository that has the artifact.
+     * @throws IOException               if the remote repositories could not be asked.
+     * @throws ArtifactNotFoundException if no remote repository has the artifact.
+     */
+    private HttpResponse<InputStream> head(Artifact artifact) throws IOException, ArtifactNotFoundException {
+        HttpResponse<InputStream> response = send(toPath(artifact), "HEAD");
+        if (response == null) {
+            throw new ArtifactNotFoundException(artifact);
+        }
+        try {
+            response.body().close();
+        } finally {
+            permits.release();
+        }
+        return response;
+    }
+
+    /**
+     * Sends a request to the remote repositories in turn until one has the content.
+     *
+     * @param path   the path of the content.
+     * @param method the request method.
+     * @return the response, whose body must be closed and permit released, or <code>null</code> if no remote
+     *         repository has the content.
+     * @throws IOException if no remote repository has the content and at least one could not be asked.
+     */
+    private HttpResponse<InputStream> send(String path, String method) throws IOException {
+        IOException failure = null;
+        for (URI remote : remotes) {
+            try {
+                HttpResponse<InputStream> response = send(remote, path, method);
+                if (response != null) {
+                    return response;
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return null;
+    }
+
+    /**
+     * Sends a request to a remote repository.
+     *
+     * @param remote the remote repository.
+     * @param path   the path of the content.
+     * @param method the request method.
+     * @return the response, whose body must be closed and permit released, or <code>null</code> if the remote
+     *         repository does not have the content.
+     * @throws IOException if the remote repository could not be asked.
+     */
+    private HttpResponse<InputStream> send(URI remote, String path, String method) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(remote.resolve(path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to request " + request.uri());
+        }
+        boolean keepPermit = false;
+        try {
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            int status = response.statusCode();
+            if (status == 200) {
+                keepPermit = true;
+                return response;
+            }
+            response.body().close();
+            if (status == 404 || status == 410) {
+                return null;
+            }
+            throw new IOException("Unexpected status " + status + " from " + request.uri());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while requesting " + request.uri());
+        } finally {
+            if (!keepPermit) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Returns the cached file of the artifact.
+     *
+     * @param artifact the artifact.
+     * @return the cached file or <code>null</code> if the artifact is not cached or must always be fetched.
+     */
+    private File getCachedFile(Artifact artifact) {
+        if (!isCacheable(artifact)) {
+            return null;
+        }
+        File file = toFile(artifact);
+        return file.isFile() ? file : null;
+    }
+
+    /**
+     * Checks if the content of the artifact never changes, i.e. it is not a <code>-SNAPSHOT</code> without timestamp.
+     *
+     * @param artifact the artifact.
+     * @return <code>true</code> if the artifact can be served from the cache.
+     */
+    private static boolean isCacheable(Artifact artifact) {
+        return !artifact.isSnapshot() || artifact.getTimestamp() != null;
+    }
+
+    private File toFile(Artifact artifact) {
+        return new File(root, toPath(artifact));
+    }
+
+    private static String toPath(Artifact artifact) {
+        return artifact.getGroupId().replace('.', '/')
+                + '/'
+                + artifact.getArtifactId()
+                + '/'
+                + artifact.getVersion()
+                + '/'
+                + artifact.getName();
+    }
+
+    private static long getLastModified(HttpResponse<?> response) {
+        String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        if (lastModified == null) {
+            return 0L;
+        }
+        try {
+            return ZonedDateTime.parse(lastModified, DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant()
+                    .toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * The body of a response, which gives the request permit back when it is closed.
+     *
+     * @since 2.0.0
+     */
+    private final class UpstreamInputStream extends FilterInputStream {
+
+        private boolean closed;
+
+        private UpstreamInputStream(InputStream body) {
+            super(body);
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * A download of a response body into a cache file. The body is first written to a <code>.part</code> file, which
+     * readers follow as it grows, and is moved to the cache file once complete. The download carries on when its
+     * readers go away, so that the content is cached anyway.
+     *
+     * @since 2.0.0
+     */
+    private final class Download {
+
+        private final File target;
+
+        /**
+         * The file the body is written to until it is complete.
+         * <p/>
+         * Guarded by <code>this</code>.
+         */
+        private Path part;
+
+        /**
+         * The size and last modified time of the content, as told by the response.
+         * <p/>
+         * Guarded by <code>this</code>.
+         */
+        private Headers headers;
+
+        /**
+         * Whether the response is known.
+         * <p/>
+         * Guarded by <code>this</code>.
+         */
+        private boolean started;
+
+        /**
+         * Whether the download is over, the content then is in {@link #target} unless no remote repository had it.
+         * <p/>
+         * Guarded by <code>this</code>.
+         */
+        private boolean finished;
+
+        /**
+         * Why the download failed.
+         * <p/>
+         * Guarded by <code>this</code>.
+         */
+        private Exception failure;
+
+        /**
+         * The number of bytes written to {@link #part} so far.
+         * <p/>
+         * Guarded by <code>this</code>.
+         */
+        private long written;
+
+        /**
+         * The body of the response being copied.
+         * <p/>
+         * Guarded by <code>this</code>.
+         */
+        private InputStream body;
+
+        private Download(File target) {
+            this.target = target;
+        }
+
+        /**
+         * Starts copying the body of the response in the background.
+         *
+         * @param response the response or <code>null</code> if there is nothing to download.
+         */
+        private synchronized void start(HttpResponse<InputStream> response) {
+            started = true;
+            notifyAll();
+            if (response == null) {
+                finished = true;
+                downloads.remove(target, this);
+                return;
+            }
+            headers = Headers.of(response, 0L);
+            body = new UpstreamInputStream(response.body());
+            try {
+                Files.createDirectories(target.getParentFile().toPath());
+                Path directory = Files.createDirectories(new File(root, PART_DIRECTORY).toPath());
+                part = Files.createTempFile(directory, target.getName(), ".part");
+                copier.execute(() -> copy(body, response));
+            } catch (IOException | RejectedExecutionException e) {
+                IOUtils.closeQuietly(body);
+                fail(e);
+            }
+        }
+
+        /**
+         * Stops the download if it is still in progress, failing its readers.
+         */
+        private void abort() {
+            InputStream toClose;
+            synchronized (this) {
+                if (finished || failure != null) {
+                    return;
+                }
+                fail(new IOException("The store was closed"));
+                toClose = body;
+            }
+            // wakes the copier up, the client does not heed interrupts
+            IOUtils.closeQuietly(toClose);
+        }
+
+        /**
+         * Marks the download failed.
+         *
+         * @param e the reason.
+         */
+        private synchronized void fail(Exception e) {
+            started = true;
+            failure = e;
+            if (part != null) {
+                try {
+                    Files.deleteIfExists(part);
+                } catch (IOException ignored) {
+                    // a stray part file is harmless
+                }
+            }
+            downloads.remove(target, this);
+            notifyAll();
+        }
+
+        /**
+         * Copies the body of the response to the part file, then moves it to the cache file.
+         *
+         * @param body     the body of the response.
+         * @param response the response.
+         */
+        private void copy(InputStream body, HttpResponse<InputStream> response) {
+            try (InputStream in = body;
+                    OutputStream out = Files.newOutputStream(part)) {
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, n);
+                    synchronized (this) {
+                        written += n;
+                        notifyAll();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+                return;
+            }
+            synchronized (this) {
+                try {
+                    try {
+                        Files.move(
+                                part,
+                                target.toPath(),
+                                StandardCopyOption.REPLACE_EXISTING,
+                                StandardCopyOption.ATOMIC_MOVE);
+                    } catch (AtomicMoveNotSupportedException e) {
+                        Files.move(part, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } catch (IOException e) {
+                    fail(e);
+                    return;
+                }
+                long lastModified = getLastModified(response);
+                if (lastModified > 0) {
+                    target.setLastModified(lastModified);
+                }
+                finished = true;
+                downloads.remove(target, this);
+                notifyAll();
+            }
+        }
+
+        /**
+         * Opens a reader of the content.
+         *
+         * @return the content or <code>null</code> if no remote repository has it.
+         * @throws IOException if the download failed.
+         */
+        private synchronized InputStream open() throws IOException {
+            while (!started) {
+                await();
+            }
+            checkFailure();
+            if (finished) {
+                return target.isFile() ? Files.newInputStream(target.toPath()) : null;
+            }
+            // the part file may be moved while it is read, the open channel keeps reading the same file
+            return new DownloadInputStream(this, FileChannel.open(part, StandardOpenOption.READ));
+        }
+
+        /**
+         * Waits until the response is known.
+         *
+         * @return the size and last modified time of the content or <code>null</code> if no remote repository has it.
+         * @throws IOException if the content could not be requested.
+         */
+        private synchronized Headers awaitHeaders() throws IOException {
+            while (!started) {
+                await();
+            }
+            if (headers != null) {
+                return headers;
+            }
+            checkFailure();
+            // nothing was downloaded, unless another download completed first
+            return target.isFile() ? new Headers(target.length(), target.lastModified(), 0L) : null;
+        }
+
+        /**
+         * Waits until there are bytes to read at the specified position.
+         *
+         * @param position the position.
+         * @return the number of bytes that can be read or <code>-1</code> if the position is the end of the content.
+         * @throws IOException if the download failed.
+         */
+        private synchronized long awaitAvailable(long position) throws IOException {
+            while (written <= position && !finished) {
+                checkFailure();
+                await();
+            }
+            checkFailure();
+            return written > position ? written - position : -1;
+        }
+
+        private void checkFailure() throws IOException {
+            if (failure != null) {
+                throw new IOException("Download of " + target.getName() + " failed: " + failure.getMessage(), failure);
+            }
+        }
+
+        private void await() throws InterruptedIOException {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the download of " + target.getName());
+            }
+        }
+    }
+
+    /**
+     * Reads the content of a {@link Download} while it is in progress.
+     *
+     * @since 2.0.0
+     */
+    private static final class DownloadInputStream extends InputStream {
+
+        private final Download download;
+
+        private final FileChannel channel;
+
+        private long position;
+
+        private DownloadInputStream(Download download, FileChannel channel) {
+            this.download = download;
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            long available = download.awaitAvailable(position);
+            if (available < 0) {
+                return -1;
+            }
+            int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, available)), position);
+            if (n <= 0) {
+                // the bytes were written, so the part file was truncated or replaced under us
+                throw new EOFException("The part file of " + download.target.getName() + " is shorter than the "
+                        + (position + available) + " bytes downloaded");
+            }
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * The size and last modified time of an artifact.
+     *
+     * @since 2.0.0
+     */
+    private static final class Headers {
+
+        /**
+         * The size, or <code>-1</code> if the remote repository does not tell.
+         */
+        private final long size;
+
+        /**
+         * The last modified time, or <code>0</code> if the remote repository does not tell.
+         */
+        private final long lastModified;
+
+        /**
+         * When (as per {@link System#nanoTime()}) the headers must be fetched again, if they are reused at all.
+         */
+        private final long expiry;
+
+        private Headers(long size, long lastModified, long expiry) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.expiry = expiry;
+        }
+
+        private static Headers of(HttpResponse<?> response, long expiry) {
+            return new Headers(
+                    response.headers().firstValueAsLong("Content-Length").orElse(-1L),
+                    getLastModified(response),
+                    expiry);
+        }
+
+        private boolean isExpired() {
+            return expiry - System.nanoTime() <= 0;
+        }
+    }
+
+    /**
+     * Fetched metadata and its last modified time.
+     *
+     * @since 2.0.0
+     */
+    private static final class FetchedMetadata {
+
+        private final Metadata metadata;
+
+        private final long lastModified;
+
+        /**
+         * When (as per {@link System#nanoTime()}) the metadata must be fetched again.
+         */
+        private final long expiry;
+
+        private FetchedMetadata(Metadata metadata, long lastModified, long expiry) {
+            this.metadata = metadata;
+            this.lastModified = lastModified;
+            this.expiry = expiry;
+        }
+
+        private boolean isExpired() {
+            return expiry - System.nanoTime() <= 0;
+        }
+    }
+}
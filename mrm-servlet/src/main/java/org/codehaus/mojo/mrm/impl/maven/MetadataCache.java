@@ -0,0 +1,116 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.impl.maven;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Writer;
+import org.codehaus.mojo.mrm.api.maven.ArtifactStore;
+import org.codehaus.mojo.mrm.api.maven.MetadataNotFoundException;
+
+/**
+ * Caches the serialized form of the {@link Metadata} of an {@link ArtifactStore}, keyed by path. A cached form is
+ * reused for as long as {@link ArtifactStore#getMetadataLastModified(String)} reports the same value it had when the
+ * metadata was serialized.
+ *
+ * @since 2.0.0
+ */
+final class MetadataCache {
+
+    /**
+     * The backing {@link ArtifactStore}.
+     *
+     * @since 2.0.0
+     */
+    private final ArtifactStore store;
+
+    /**
+     * The serialized metadata keyed by path (without leading or trailing <code>/</code>).
+     *
+     * @since 2.0.0
+     */
+    private final Map<String, Serialized> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a cache for the metadata of the specified store.
+     *
+     * @param store the artifact store.
+     * @since 2.0.0
+     */
+    MetadataCache(ArtifactStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Returns the serialized metadata at the specified path, serializing it only if it has not been serialized
+     * since it was last modified.
+     *
+     * @param path the path of the metadata.
+     * @return the serialized metadata, callers must not modify the returned array.
+     * @throws IOException               if the metadata could not be read or serialized.
+     * @throws MetadataNotFoundException if the metadata does not exist.
+     * @since 2.0.0
+     */
+    byte[] getBytes(String path) throws IOException, MetadataNotFoundException {
+        String key = StringUtils.strip(path, "/");
+        long lastModified = store.getMetadataLastModified(path);
+        Serialized serialized = entries.get(key);
+        if (serialized == null || serialized.lastModified != lastModified) {
+            serialized = new Serialized(lastModified, serialize(store.getMetadata(path)));
+            entries.put(key, serialized);
+        }
+        return serialized.bytes;
+    }
+
+    /**
+     * Discards the serialized metadata at the specified path.
+     *
+     * @param path the path of the metadata.
+     * @since 2.0.0
+     */
+    void invalidate(String path) {
+        entries.remove(StringUtils.strip(path, "/"));
+    }
+
+    private static byte[] serialize(Metadata metadata) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new MetadataXpp3Writer().write(bytes, metadata);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * The serialized form of a metadata together with the last modified time it was serialized at.
+     *
+     * @since 2.0.0
+     */
+    private static final class Serialized {
+
+        private final long lastModified;
+
+        private final byte[] bytes;
+
+        private Serialized(long lastModified, byte[] bytes) {
+            this.lastModified = lastModified;
+            this.bytes = bytes;
+        }
+    }
+}
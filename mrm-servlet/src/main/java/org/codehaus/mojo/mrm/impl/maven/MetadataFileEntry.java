@@ -19,10 +19,8 @@ package org.codehaus.mojo.mrm.impl.maven;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringWriter;
 
 import org.apache.maven.artifact.repository.metadata.Metadata;
-import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Writer;
 import org.codehaus.mojo.mrm.api.BaseFileEntry;
 import org.codehaus.mojo.mrm.api.DirectoryEntry;
 import org.codehaus.mojo.mrm.api.FileSystem;
@@ -50,6 +48,13 @@ public class MetadataFileEntry extends BaseFileEntry {
      */
     private final ArtifactStore store;
 
+    /**
+     * The cache of serialized metadata.
+     *
+     * @since 2.0.0
+     */
+    private final MetadataCache cache;
+
     /**
      * Creates a file entry for the specified parent directory of the specified file system that corresponds to the
      * specified metadata in the specified artifact store and will have the name
@@ -62,19 +67,33 @@ public class MetadataFileEntry extends BaseFileEntry {
      * @since 1.0
      */
     public MetadataFileEntry(FileSystem fileSystem, DirectoryEntry parent, String path, ArtifactStore store) {
+        this(fileSystem, parent, path, store, new MetadataCache(store));
+    }
+
+    /**
+     * Creates a file entry for the specified parent directory of the specified file system that corresponds to the
+     * specified metadata in the specified artifact store and will have the name
+     * <code>maven-metadata.xml</code>, sharing the serialized metadata through the specified cache.
+     *
+     * @param fileSystem the file system.
+     * @param parent     the parent directory.
+     * @param path       the path of the metadata.
+     * @param store      the artifact store.
+     * @param cache      the cache of serialized metadata of the artifact store.
+     * @since 2.0.0
+     */
+    MetadataFileEntry(
+            FileSystem fileSystem, DirectoryEntry parent, String path, ArtifactStore store, MetadataCache cache) {
         super(fileSystem, parent, "maven-metadata.xml");
         this.path = path;
         this.store = store;
+        this.cache = cache;
     }
 
     @Override
     public long getSize() throws IOException {
         try {
-            Metadata metadata = store.getMetadata(path);
-            MetadataXpp3Writer writer = new MetadataXpp3Writer();
-            StringWriter stringWriter = new StringWriter();
-            writer.write(stringWriter, metadata);
-            return stringWriter.toString().getBytes().length;
+            return cache.getBytes(path).length;
         } catch (MetadataNotFoundException e) {
             throw new IOException("File not found", e);
         }
@@ -83,11 +102,7 @@ public class MetadataFileEntry extends BaseFileEntry {
     @Override
     public InputStream getInputStream() throws IOException {
         try {
-            Metadata metadata = store.getMetadata(path);
-            MetadataXpp3Writer writer = new MetadataXpp3Writer();
-            StringWriter stringWriter = new StringWriter();
-            writer.write(stringWriter, metadata);
-            return new ByteArrayInputStream(stringWriter.toString().getBytes());
+            return new ByteArrayInputStream(cache.getBytes(path));
         } catch (MetadataNotFoundException e) {
             return null;
         }
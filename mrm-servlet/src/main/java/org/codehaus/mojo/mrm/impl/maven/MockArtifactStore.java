@@ -23,13 +23,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
@@ -41,9 +42,21 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -102,13 +115,26 @@ public class MockArtifactStore extends BaseArtifactStore {
     public static final String[] POM_EXTENSIONS = {"pom"};
 
     /**
-     * The contents of this artifact store.
+     * The default number of threads scanning the POMs: scan on the calling thread.
      *
-     * @since 1.0
+     * @since 2.0.0
+     */
+    public static final int DEFAULT_SCAN_THREADS = 1;
+
+    /**
+     * The default number of threads archiving directories in the background: none.
+     *
+     * @since 2.0.0
      */
-    private Map<String, Map<String, Map<String, Map<Artifact, Content>>>> contents = new HashMap<>();
+    public static final int DEFAULT_ARCHIVE_THREADS = 0;
 
-    private Content archetypeCatalog;
+    /**
+     * The contents of this artifact store. The index is never modified once published, so it is read without
+     * locking; it can only be replaced as a whole.
+     *
+     * @since 2.0.0
+     */
+    private volatile Index index;
 
     /**
      * Create a mock artifact store by scanning for POMs within the specified root.
@@ -150,135 +176,305 @@ public class MockArtifactStore extends BaseArtifactStore {
             File root,
             boolean lazyArchiver,
             TransformDirectiveSourceFactory transformDirectiveSourcFactory) {
+        this(
+                archiverManager,
+                root,
+                new Options()
+                        .setLazyArchiver(lazyArchiver)
+                        .setTransformDirectiveSourceFactory(transformDirectiveSourcFactory));
+    }
+
+    /**
+     * Create a mock artifact store by scanning for POMs within the specified root.
+     *
+     * @param archiverManager the archivemanager
+     * @param root the root
+     * @param options how the artifact store scans the root and archives directories
+     * @since 2.0.0
+     */
+    public MockArtifactStore(ArchiverManager archiverManager, File root, Options options) {
 
         if (!root.isDirectory()) {
             throw new IllegalArgumentException("The specified root must be a directory: " + root);
         }
 
-        MavenXpp3Reader pomReader = new MavenXpp3Reader();
-        Collection<File> poms = FileUtils.listFiles(root, POM_EXTENSIONS, true);
-        for (File file : poms) {
-            try (FileReader fileReader = new FileReader(file)) {
-                Model model = pomReader.read(fileReader);
-                String groupId = model.getGroupId() != null
-                        ? model.getGroupId()
-                        : model.getParent().getGroupId();
-                String artifactId = model.getArtifactId();
-                String version = model.getVersion() != null
-                        ? model.getVersion()
-                        : model.getParent().getVersion();
+        long start = System.nanoTime();
+        List<File> poms = new ArrayList<>(FileUtils.listFiles(root, POM_EXTENSIONS, true));
+        // scan in a stable order so that the index does not depend on the file system or on thread scheduling
+        Collections.sort(poms);
+        TransformDirectiveSourceFactory transformDirectiveSourcFactory = options.getTransformDirectiveSourceFactory();
+        int archiveThreads = options.getArchiveThreads();
+        boolean lazy = options.isLazyArchiver() || archiveThreads > 0;
+        ArchiveCache archiveCache = options.getArchiveCacheDirectory() == null
+                ? null
+                : new ArchiveCache(
+                        options.getArchiveCacheDirectory(),
+                        transformDirectiveSourcFactory == null ? null : transformDirectiveSourcFactory.name());
+        BiFunction<File, Long, Content> directoryContents = (directory, lastModified) -> newDirectoryContent(
+                archiverManager,
+                directory,
+                lazy,
+                transformDirectiveSourcFactory,
+                archiveCache,
+                options.isStreamArchives(),
+                lastModified);
+        Map<String, Map<String, Map<String, Map<Artifact, Content>>>> contents = new HashMap<>();
+        List<DirectoryContent> directories = new ArrayList<>();
+        for (List<Map.Entry<Artifact, Content>> entries : scanPoms(poms, options.getScanThreads(), directoryContents)) {
+            for (Map.Entry<Artifact, Content> entry : entries) {
+                set(contents, entry.getKey(), entry.getValue());
+                if (entry.getValue() instanceof DirectoryContent) {
+                    directories.add((DirectoryContent) entry.getValue());
+                }
+            }
+        }
+        if (LOGGER != null) {
+            LOGGER.info(
+                    "Indexed {} POMs in {} using {} thread(s) in {} ms",
+                    poms.size(),
+                    root,
+                    Math.max(1, options.getScanThreads()),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        Content archetypeCatalog = null;
+        File archetypeCatalogFile = new File(root, "archetype-catalog.xml");
+        if (archetypeCatalogFile.isFile()) {
+            archetypeCatalog = new FileContent(archetypeCatalogFile, null);
+        }
+        index = new Index(contents, archetypeCatalog);
 
-                Artifact pomArtifact = createPomArtifact(groupId, artifactId, version, file);
-                set(pomArtifact, new FileContent(file, pomArtifact.getTimestamp()));
+        if (archiveThreads > 0 && !directories.isEmpty()) {
+            archiveInBackground(directories, archiveThreads);
+        }
+    }
 
-                final String pomBasename = FilenameUtils.getBaseName(file.getName());
+    /**
+     * Scans the specified POMs, in parallel when asked to.
+     *
+     * @param poms the POMs to scan.
+     * @param scanThreads the number of threads to scan with, {@code 1} or less to scan on the calling thread.
+     * @param directoryContents creates the content of a directory, given the directory and its timestamp.
+     * @return the artifacts found next to each POM, in the order of {@code poms}.
+     * @since 2.0.0
+     */
+    private List<List<Map.Entry<Artifact, Content>>> scanPoms(
+            List<File> poms, int scanThreads, BiFunction<File, Long, Content> directoryContents) {
+        List<List<Map.Entry<Artifact, Content>>> result = new ArrayList<>(poms.size());
+        if (scanThreads <= 1 || poms.size() <= 1) {
+            for (File pom : poms) {
+                result.add(scanPom(pom, directoryContents));
+            }
+            return result;
+        }
 
-                if (StringUtils.isEmpty(model.getPackaging()) || "jar".equals(model.getPackaging())) {
-                    File mainFile = new File(file.getParentFile(), pomBasename + ".jar");
+        ExecutorService executor =
+                Executors.newFixedThreadPool(Math.min(scanThreads, poms.size()), daemonThreads("mrm-mock-scan-"));
+        try {
+            List<Future<List<Map.Entry<Artifact, Content>>>> scans = new ArrayList<>(poms.size());
+            for (File pom : poms) {
+                scans.add(executor.submit(() -> scanPom(pom, directoryContents)));
+            }
+            // collect in submission order, so the merge is the same as when scanning on a single thread
+            for (Future<List<Map.Entry<Artifact, Content>>> scan : scans) {
+                result.add(scan.get());
+            }
+            return result;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning POMs", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-                    Content content;
-                    if (mainFile.isDirectory()) {
-                        DefaultFileSet fileSet = DefaultFileSet.fileSet(mainFile);
+    /**
+     * Scans a POM and the files next to it.
+     *
+     * @param file the POM.
+     * @param directoryContents creates the content of a directory, given the directory and its timestamp.
+     * @return the artifacts found, empty if the POM could not be read.
+     * @since 2.0.0
+     */
+    private List<Map.Entry<Artifact, Content>> scanPom(File file, BiFunction<File, Long, Content> directoryContents) {
+        List<Map.Entry<Artifact, Content>> entries = new ArrayList<>();
+        try (FileReader fileReader = new FileReader(file)) {
+            Model model = new MavenXpp3Reader().read(fileReader);
+            String groupId = model.getGroupId() != null
+                    ? model.getGroupId()
+                    : model.getParent().getGroupId();
+            String artifactId = model.getArtifactId();
+            String version = model.getVersion() != null
+                    ? model.getVersion()
+                    : model.getParent().getVersion();
+
+            Artifact pomArtifact = createPomArtifact(groupId, artifactId, version, file);
+            entries.add(Map.entry(pomArtifact, new FileContent(file, pomArtifact.getTimestamp())));
+
+            final String pomBasename = FilenameUtils.getBaseName(file.getName());
+
+            if (StringUtils.isEmpty(model.getPackaging()) || "jar".equals(model.getPackaging())) {
+                File mainFile = new File(file.getParentFile(), pomBasename + ".jar");
+
+                Content content;
+                if (mainFile.isDirectory()) {
+                    content = directoryContents.apply(mainFile, pomArtifact.getTimestamp());
+                } else {
+                    content = new BytesContent(Utils.newEmptyJarContent(), pomArtifact.getTimestamp());
+                }
 
-                        if (transformDirectiveSourcFactory != null) {
-                            TransformDirectiveSource transformDirectiveSource =
-                                    transformDirectiveSourcFactory.newInstance(mainFile.toPath());
+                entries.add(Map.entry(
+                        new Artifact(
+                                groupId,
+                                model.getArtifactId(),
+                                version,
+                                null,
+                                "jar",
+                                pomArtifact.getTimestamp(),
+                                pomArtifact.getBuildNumber()),
+                        content));
+            } else if ("maven-plugin".equals(model.getPackaging())) {
+                entries.add(Map.entry(
+                        new Artifact(
+                                groupId,
+                                model.getArtifactId(),
+                                version,
+                                null,
+                                "jar",
+                                pomArtifact.getTimestamp(),
+                                pomArtifact.getBuildNumber()),
+                        new BytesContent(
+                                Utils.newEmptyMavenPluginJarContent(groupId, model.getArtifactId(), version),
+                                pomArtifact.getTimestamp())));
+            }
 
-                            FileMapper[] fileMappers = new FileMapper[] {toFileMapper(transformDirectiveSource)};
-                            fileSet.setFileMappers(fileMappers);
+            File[] classifiedFiles = file.getParentFile()
+                    .listFiles((dir, name) -> FilenameUtils.getBaseName(name).startsWith(pomBasename + '-'));
 
-                            InputStreamTransformer streamTransformer =
-                                    toInputStreamTransformer(transformDirectiveSource);
-                            fileSet.setStreamTransformer(streamTransformer);
-                        }
-                        content = new DirectoryContent(
-                                archiverManager, fileSet, lazyArchiver, pomArtifact.getTimestamp());
-                    } else {
-                        content = new BytesContent(Utils.newEmptyJarContent(), pomArtifact.getTimestamp());
-                    }
+            for (File classifiedFile : classifiedFiles) {
+                String type = org.codehaus.plexus.util.FileUtils.extension(classifiedFile.getName());
+                String classifier =
+                        FilenameUtils.getBaseName(classifiedFile.getName()).substring(pomBasename.length() + 1);
 
-                    set(
-                            new Artifact(
-                                    groupId,
-                                    model.getArtifactId(),
-                                    version,
-                                    null,
-                                    "jar",
-                                    pomArtifact.getTimestamp(),
-                                    pomArtifact.getBuildNumber()),
-                            content);
-                } else if ("maven-plugin".equals(model.getPackaging())) {
-                    set(
-                            new Artifact(
-                                    groupId,
-                                    model.getArtifactId(),
-                                    version,
-                                    null,
-                                    "jar",
-                                    pomArtifact.getTimestamp(),
-                                    pomArtifact.getBuildNumber()),
-                            new BytesContent(
-                                    Utils.newEmptyMavenPluginJarContent(groupId, model.getArtifactId(), version),
-                                    pomArtifact.getTimestamp()));
+                Content content;
+                if (classifiedFile.isDirectory()) {
+                    content = directoryContents.apply(classifiedFile, pomArtifact.getTimestamp());
+                } else {
+                    content = new FileContent(classifiedFile, pomArtifact.getTimestamp());
                 }
 
-                File[] classifiedFiles = file.getParentFile()
-                        .listFiles(
-                                (dir, name) -> FilenameUtils.getBaseName(name).startsWith(pomBasename + '-'));
-
-                for (File classifiedFile : classifiedFiles) {
-                    String type = org.codehaus.plexus.util.FileUtils.extension(classifiedFile.getName());
-                    String classifier =
-                            FilenameUtils.getBaseName(classifiedFile.getName()).substring(pomBasename.length() + 1);
+                entries.add(Map.entry(
+                        new Artifact(
+                                groupId,
+                                model.getArtifactId(),
+                                version,
+                                classifier,
+                                type,
+                                pomArtifact.getTimestamp(),
+                                pomArtifact.getBuildNumber()),
+                        content));
+            }
+        } catch (IOException e) {
+            if (LOGGER != null) {
+                LOGGER.warn("Could not read from " + file, e);
+            }
+        } catch (XmlPullParserException e) {
+            if (LOGGER != null) {
+                LOGGER.warn("Could not parse " + file, e);
+            }
+        }
+        return entries;
+    }
 
-                    Content content;
-                    if (classifiedFile.isDirectory()) {
-                        DefaultFileSet fileSet = DefaultFileSet.fileSet(classifiedFile);
+    /**
+     * Creates the content of an exploded archive.
+     *
+     * @param archiverManager the archiver manager.
+     * @param directory the directory to archive.
+     * @param lazy {@code false} if the archive should be created immediately.
+     * @param transformDirectiveSourcFactory the transformDirectiveSourcFactory, may be {@code null}.
+     * @param archiveCache the archives kept across restarts, may be {@code null}.
+     * @param streamArchives {@code true} to generate zip archives while they are read rather than into a file.
+     * @param lastModified the last modified timestamp, or {@code null} to use the directory's last modified time.
+     * @return the content.
+     * @since 2.0.0
+     */
+    private Content newDirectoryContent(
+            ArchiverManager archiverManager,
+            File directory,
+            boolean lazy,
+            TransformDirectiveSourceFactory transformDirectiveSourcFactory,
+            ArchiveCache archiveCache,
+            boolean streamArchives,
+            Long lastModified) {
+        TransformDirectiveSource transformDirectiveSource = transformDirectiveSourcFactory != null
+                ? transformDirectiveSourcFactory.newInstance(directory.toPath())
+                : null;
+        if (streamArchives && DirectoryZip.supports(directory)) {
+            return new StreamedDirectoryContent(new DirectoryZip(directory, transformDirectiveSource), lastModified);
+        }
 
-                        if (transformDirectiveSourcFactory != null) {
-                            TransformDirectiveSource transformDirectiveSource =
-                                    transformDirectiveSourcFactory.newInstance(classifiedFile.toPath());
+        DefaultFileSet fileSet = DefaultFileSet.fileSet(directory);
 
-                            FileMapper[] fileMappers = new FileMapper[] {toFileMapper(transformDirectiveSource)};
-                            fileSet.setFileMappers(fileMappers);
+        if (transformDirectiveSource != null) {
+            FileMapper[] fileMappers = new FileMapper[] {toFileMapper(transformDirectiveSource)};
+            fileSet.setFileMappers(fileMappers);
 
-                            InputStreamTransformer streamTransformer =
-                                    toInputStreamTransformer(transformDirectiveSource);
-                            fileSet.setStreamTransformer(streamTransformer);
-                        }
+            InputStreamTransformer streamTransformer = toInputStreamTransformer(transformDirectiveSource);
+            fileSet.setStreamTransformer(streamTransformer);
+        }
+        return new DirectoryContent(archiverManager, fileSet, lazy, lastModified, archiveCache);
+    }
 
-                        content = new DirectoryContent(
-                                archiverManager, fileSet, lazyArchiver, pomArtifact.getTimestamp());
-                    } else {
-                        content = new FileContent(classifiedFile, pomArtifact.getTimestamp());
+    /**
+     * Archives the specified directories on a pool of background threads. A request for a directory waits for its
+     * archive to be ready, or archives it itself when the pool did not get to it yet.
+     *
+     * @param directories the directories to archive.
+     * @param archiveThreads the number of threads to archive with.
+     * @since 2.0.0
+     */
+    private static void archiveInBackground(List<DirectoryContent> directories, int archiveThreads) {
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(archiveThreads, directories.size()), daemonThreads("mrm-mock-archive-"));
+        for (DirectoryContent directory : directories) {
+            executor.execute(() -> {
+                try {
+                    directory.getPath();
+                } catch (RuntimeException e) {
+                    // the request for it will fail in the same way
+                    if (LOGGER != null) {
+                        LOGGER.warn("Could not archive {}", directory, e);
                     }
-
-                    set(
-                            new Artifact(
-                                    groupId,
-                                    model.getArtifactId(),
-                                    version,
-                                    classifier,
-                                    type,
-                                    pomArtifact.getTimestamp(),
-                                    pomArtifact.getBuildNumber()),
-                            content);
                 }
-            } catch (IOException e) {
-                if (LOGGER != null) {
-                    LOGGER.warn("Could not read from " + file, e);
-                }
-            } catch (XmlPullParserException e) {
-                if (LOGGER != null) {
-                    LOGGER.warn("Could not parse " + file, e);
-                }
-            }
+            });
         }
+        // the pool stops once every directory is archived
+        executor.shutdown();
+    }
 
-        File archetypeCatalogFile = new File(root, "archetype-catalog.xml");
-        if (archetypeCatalogFile.isFile()) {
-            archetypeCatalog = new FileContent(archetypeCatalogFile, null);
-        }
+    /**
+     * Creates daemon threads named after the specified prefix.
+     *
+     * @param prefix the prefix of the thread names.
+     * @return the thread factory.
+     * @since 2.0.0
+     */
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
     private FileMapper toFileMapper(TransformDirectiveSource source) {
@@ -316,45 +512,22 @@ public class MockArtifactStore extends BaseArtifactStore {
 
     @Override
     public Set<String> getGroupIds(String parentGroupId) {
-        TreeSet<String> result = new TreeSet<>();
-        if (StringUtils.isEmpty(parentGroupId)) {
-            for (String groupId : contents.keySet()) {
-                int index = groupId.indexOf('.');
-                result.add(index == -1 ? groupId : groupId.substring(0, index));
-            }
-        } else {
-            String prefix = parentGroupId + '.';
-            int start = prefix.length();
-            for (String groupId : contents.keySet()) {
-                if (groupId.startsWith(prefix)) {
-                    int index = groupId.indexOf('.', start);
-                    result.add(index == -1 ? groupId.substring(start) : groupId.substring(start, index));
-                }
-            }
-        }
-        return result;
+        return index.getGroupIds(parentGroupId);
     }
 
     @Override
     public Set<String> getArtifactIds(String groupId) {
-        Map<String, Map<String, Map<Artifact, Content>>> artifactMap = contents.get(groupId);
-        return artifactMap == null ? Collections.emptySet() : new TreeSet<>(artifactMap.keySet());
+        return index.getArtifactIds(groupId);
     }
 
     @Override
     public Set<String> getVersions(String groupId, String artifactId) {
-        Map<String, Map<String, Map<Artifact, Content>>> artifactMap = contents.get(groupId);
-        Map<String, Map<Artifact, Content>> versionMap = (artifactMap == null ? null : artifactMap.get(artifactId));
-        return versionMap == null ? Collections.emptySet() : new TreeSet<>(versionMap.keySet());
+        return index.getVersions(groupId, artifactId);
     }
 
     @Override
     public Set<Artifact> getArtifacts(String groupId, String artifactId, String version) {
-        Map<String, Map<String, Map<Artifact, Content>>> artifactMap = contents.get(groupId);
-        Map<String, Map<Artifact, Content>> versionMap = (artifactMap == null ? null : artifactMap.get(artifactId));
-        Map<Artifact, Content> filesMap = (versionMap == null ? null : versionMap.get(version));
-
-        return filesMap == null ? Collections.emptySet() : new HashSet<>(filesMap.keySet());
+        return index.getArtifacts(groupId, artifactId, version);
     }
 
     @Override
@@ -377,40 +550,27 @@ public class MockArtifactStore extends BaseArtifactStore {
         return getContent(artifact).getSha1Checksum();
     }
 
+    @Override
+    public Path getPath(Artifact artifact) throws IOException, ArtifactNotFoundException {
+        return getContent(artifact).getPath();
+    }
+
     private Content getContent(Artifact artifact) throws ArtifactNotFoundException {
-        Map<String, Map<String, Map<Artifact, Content>>> artifactMap = contents.get(artifact.getGroupId());
-        Map<String, Map<Artifact, Content>> versionMap =
-                (artifactMap == null ? null : artifactMap.get(artifact.getArtifactId()));
-        Map<Artifact, Content> filesMap = (versionMap == null ? null : versionMap.get(artifact.getVersion()));
-        Content content = (filesMap == null ? null : filesMap.get(artifact));
-        if (content == null) {
-            if (artifact.isSnapshot() && artifact.getTimestamp() == null && filesMap != null) {
-                Artifact best = null;
-                for (Map.Entry<Artifact, Content> entry : filesMap.entrySet()) {
-                    Artifact a = entry.getKey();
-                    if (artifact.equalSnapshots(a) && (best == null || best.compareTo(a) < 0)) {
-                        best = a;
-                        content = entry.getValue();
-                    }
-                }
-                if (content == null) {
-                    throw new ArtifactNotFoundException(artifact);
-                }
-            } else {
-                throw new ArtifactNotFoundException(artifact);
-            }
-        }
-        return content;
+        return index.getContent(artifact);
     }
 
     /**
      * Sets the content for a specified artifact.
      *
+     * @param contents the contents to set it in.
      * @param artifact the artifact.
      * @param content the content.
      * @since 1.0
      */
-    private synchronized void set(Artifact artifact, Content content) {
+    private static void set(
+            Map<String, Map<String, Map<String, Map<Artifact, Content>>>> contents,
+            Artifact artifact,
+            Content content) {
         Map<String, Map<String, Map<Artifact, Content>>> artifactMap =
                 contents.computeIfAbsent(artifact.getGroupId(), k -> new HashMap<>());
         Map<String, Map<Artifact, Content>> versionMap =
@@ -421,23 +581,26 @@ public class MockArtifactStore extends BaseArtifactStore {
 
     @Override
     @SuppressWarnings("checkstyle:MethodLength")
-    public synchronized Metadata getMetadata(String path) throws IOException, MetadataNotFoundException {
+    public Metadata getMetadata(String path) throws IOException, MetadataNotFoundException {
+        Index current = index;
         Metadata metadata = new Metadata();
         boolean foundMetadata = false;
         path = StringUtils.stripEnd(StringUtils.stripStart(path, "/"), "/");
         String groupId = path.replace('/', '.');
-        Set<String> pluginArtifactIds = getArtifactIds(groupId);
+        Set<String> pluginArtifactIds = current.getArtifactIds(groupId);
         if (pluginArtifactIds != null) {
             List<Plugin> plugins = new ArrayList<>();
             for (String artifactId : pluginArtifactIds) {
-                Set<String> pluginVersions = getVersions(groupId, artifactId);
+                Set<String> pluginVersions = current.getVersions(groupId, artifactId);
                 if (pluginVersions == null || pluginVersions.isEmpty()) {
                     continue;
                 }
                 String[] versions = pluginVersions.toArray(new String[0]);
                 Arrays.sort(versions, INSTANCE);
                 for (int j = versions.length - 1; j >= 0; j--) {
-                    try (InputStream inputStream = get(new Artifact(groupId, artifactId, versions[j], "pom"))) {
+                    try (InputStream inputStream = current.getContent(
+                                    new Artifact(groupId, artifactId, versions[j], "pom"))
+                            .getInputStream()) {
                         Model model = new MavenXpp3Reader().read(new XmlStreamReader(inputStream));
                         if (model == null || !"maven-plugin".equals(model.getPackaging())) {
                             continue;
@@ -485,11 +648,11 @@ public class MockArtifactStore extends BaseArtifactStore {
                 metadata.setPlugins(plugins);
             }
         }
-        int index = path.lastIndexOf('/');
-        groupId = (index == -1 ? groupId : groupId.substring(0, index)).replace('/', '.');
-        String artifactId = (index == -1 ? null : path.substring(index + 1));
+        int slash = path.lastIndexOf('/');
+        groupId = (slash == -1 ? groupId : groupId.substring(0, slash)).replace('/', '.');
+        String artifactId = (slash == -1 ? null : path.substring(slash + 1));
         if (artifactId != null) {
-            Set<String> artifactVersions = getVersions(groupId, artifactId);
+            Set<String> artifactVersions = current.getVersions(groupId, artifactId);
             if (artifactVersions != null && !artifactVersions.isEmpty()) {
                 metadata.setGroupId(groupId);
                 metadata.setArtifactId(artifactId);
@@ -499,7 +662,8 @@ public class MockArtifactStore extends BaseArtifactStore {
                 long lastUpdated = 0;
                 for (String version : versions) {
                     try {
-                        long lastModified = getLastModified(new Artifact(groupId, artifactId, version, "pom"));
+                        long lastModified = current.getContent(new Artifact(groupId, artifactId, version, "pom"))
+                                .getLastModified();
                         versioning.addVersion(version);
                         if (lastModified >= lastUpdated) {
                             lastUpdated = lastModified;
@@ -518,12 +682,13 @@ public class MockArtifactStore extends BaseArtifactStore {
             }
         }
 
-        int index2 = index == -1 ? -1 : path.lastIndexOf('/', index - 1);
-        groupId = index2 == -1 ? groupId : groupId.substring(0, index2).replace('/', '.');
-        artifactId = index2 == -1 ? artifactId : path.substring(index2 + 1, index);
-        String version = index2 == -1 ? null : path.substring(index + 1);
+        int parentSlash = slash == -1 ? -1 : path.lastIndexOf('/', slash - 1);
+        groupId =
+                parentSlash == -1 ? groupId : groupId.substring(0, parentSlash).replace('/', '.');
+        artifactId = parentSlash == -1 ? artifactId : path.substring(parentSlash + 1, slash);
+        String version = parentSlash == -1 ? null : path.substring(slash + 1);
         if (version != null && version.endsWith("-SNAPSHOT")) {
-            Map<String, Map<String, Map<Artifact, Content>>> artifactMap = contents.get(groupId);
+            Map<String, Map<String, Map<Artifact, Content>>> artifactMap = current.contents.get(groupId);
             Map<String, Map<Artifact, Content>> versionMap = (artifactMap == null ? null : artifactMap.get(artifactId));
             Map<Artifact, Content> filesMap = (versionMap == null ? null : versionMap.get(version));
             if (filesMap != null) {
@@ -576,7 +741,8 @@ public class MockArtifactStore extends BaseArtifactStore {
     }
 
     @Override
-    public synchronized long getMetadataLastModified(String path) throws IOException, MetadataNotFoundException {
+    public long getMetadataLastModified(String path) throws IOException, MetadataNotFoundException {
+        Map<String, Map<String, Map<String, Map<Artifact, Content>>>> contents = index.contents;
         boolean haveResult = false;
         long result = 0;
         path = StringUtils.stripEnd(StringUtils.stripStart(path, "/"), "/");
@@ -592,9 +758,9 @@ public class MockArtifactStore extends BaseArtifactStore {
                 }
             }
         }
-        int index = path.lastIndexOf('/');
-        groupId = index == -1 ? groupId : groupId.substring(0, index).replace('/', '.');
-        String artifactId = (index == -1 ? null : path.substring(index + 1));
+        int slash = path.lastIndexOf('/');
+        groupId = slash == -1 ? groupId : groupId.substring(0, slash).replace('/', '.');
+        String artifactId = (slash == -1 ? null : path.substring(slash + 1));
         if (artifactId != null) {
             artifactMap = contents.get(groupId);
             Map<String, Map<Artifact, Content>> versionMap = (artifactMap == null ? null : artifactMap.get(artifactId));
@@ -607,10 +773,11 @@ public class MockArtifactStore extends BaseArtifactStore {
                 }
             }
         }
-        int index2 = index == -1 ? -1 : path.lastIndexOf('/', index - 1);
-        groupId = index2 == -1 ? groupId : groupId.substring(0, index2).replace('/', '.');
-        artifactId = index2 == -1 ? artifactId : path.substring(index2 + 1, index);
-        String version = index2 == -1 ? null : path.substring(index + 1);
+        int parentSlash = slash == -1 ? -1 : path.lastIndexOf('/', slash - 1);
+        groupId =
+                parentSlash == -1 ? groupId : groupId.substring(0, parentSlash).replace('/', '.');
+        artifactId = parentSlash == -1 ? artifactId : path.substring(parentSlash + 1, slash);
+        String version = parentSlash == -1 ? null : path.substring(slash + 1);
         if (version != null && version.endsWith("-SNAPSHOT")) {
             artifactMap = contents.get(groupId);
             Map<String, Map<Artifact, Content>> versionMap = (artifactMap == null ? null : artifactMap.get(artifactId));
@@ -630,6 +797,7 @@ public class MockArtifactStore extends BaseArtifactStore {
 
     @Override
     public ArchetypeCatalog getArchetypeCatalog() throws IOException, ArchetypeCatalogNotFoundException {
+        Content archetypeCatalog = index.archetypeCatalog;
         if (archetypeCatalog != null) {
             ArchetypeCatalogXpp3Reader reader = new ArchetypeCatalogXpp3Reader();
             try (InputStream inputStream = archetypeCatalog.getInputStream()) {
@@ -649,6 +817,7 @@ public class MockArtifactStore extends BaseArtifactStore {
 
     @Override
     public long getArchetypeCatalogLastModified() throws ArchetypeCatalogNotFoundException {
+        Content archetypeCatalog = index.archetypeCatalog;
         if (archetypeCatalog != null) {
             return archetypeCatalog.getLastModified();
         } else {
@@ -675,6 +844,120 @@ public class MockArtifactStore extends BaseArtifactStore {
         return false;
     }
 
+    /**
+     * An immutable index of the contents of the store.
+     *
+     * @since 2.0.0
+     */
+    private static final class Index {
+
+        /**
+         * The contents keyed by groupId, artifactId and version.
+         *
+         * @since 2.0.0
+         */
+        private final Map<String, Map<String, Map<String, Map<Artifact, Content>>>> contents;
+
+        /**
+         * The archetype catalog, or {@code null} if there is none.
+         *
+         * @since 2.0.0
+         */
+        private final Content archetypeCatalog;
+
+        /**
+         * Creates an index holding a copy of the specified contents.
+         *
+         * @param contents the contents.
+         * @param archetypeCatalog the archetype catalog, may be {@code null}.
+         * @since 2.0.0
+         */
+        private Index(
+                Map<String, Map<String, Map<String, Map<Artifact, Content>>>> contents, Content archetypeCatalog) {
+            Map<String, Map<String, Map<String, Map<Artifact, Content>>>> groups = new HashMap<>();
+            for (Map.Entry<String, Map<String, Map<String, Map<Artifact, Content>>>> group : contents.entrySet()) {
+                Map<String, Map<String, Map<Artifact, Content>>> artifacts = new HashMap<>();
+                for (Map.Entry<String, Map<String, Map<Artifact, Content>>> artifact :
+                        group.getValue().entrySet()) {
+                    Map<String, Map<Artifact, Content>> versions = new HashMap<>();
+                    for (Map.Entry<String, Map<Artifact, Content>> version :
+                            artifact.getValue().entrySet()) {
+                        versions.put(version.getKey(), Collections.unmodifiableMap(new HashMap<>(version.getValue())));
+                    }
+                    artifacts.put(artifact.getKey(), Collections.unmodifiableMap(versions));
+                }
+                groups.put(group.getKey(), Collections.unmodifiableMap(artifacts));
+            }
+            this.contents = Collections.unmodifiableMap(groups);
+            this.archetypeCatalog = archetypeCatalog;
+        }
+
+        private Set<String> getGroupIds(String parentGroupId) {
+            TreeSet<String> result = new TreeSet<>();
+            if (StringUtils.isEmpty(parentGroupId)) {
+                for (String groupId : contents.keySet()) {
+                    int dot = groupId.indexOf('.');
+                    result.add(dot == -1 ? groupId : groupId.substring(0, dot));
+                }
+            } else {
+                String prefix = parentGroupId + '.';
+                int start = prefix.length();
+                for (String groupId : contents.keySet()) {
+                    if (groupId.startsWith(prefix)) {
+                        int dot = groupId.indexOf('.', start);
+                        result.add(dot == -1 ? groupId.substring(start) : groupId.substring(start, dot));
+                    }
+                }
+            }
+            return result;
+        }
+
+        private Set<String> getArtifactIds(String groupId) {
+            Map<String, Map<String, Map<Artifact, Content>>> artifactMap = contents.get(groupId);
+            return artifactMap == null ? Collections.emptySet() : new TreeSet<>(artifactMap.keySet());
+        }
+
+        private Set<String> getVersions(String groupId, String artifactId) {
+            Map<String, Map<String, Map<Artifact, Content>>> artifactMap = contents.get(groupId);
+            Map<String, Map<Artifact, Content>> versionMap = (artifactMap == null ? null : artifactMap.get(artifactId));
+            return versionMap == null ? Collections.emptySet() : new TreeSet<>(versionMap.keySet());
+        }
+
+        private Set<Artifact> getArtifacts(String groupId, String artifactId, String version) {
+            Map<String, Map<String, Map<Artifact, Content>>> artifactMap = contents.get(groupId);
+            Map<String, Map<Artifact, Content>> versionMap = (artifactMap == null ? null : artifactMap.get(artifactId));
+            Map<Artifact, Content> filesMap = (versionMap == null ? null : versionMap.get(version));
+
+            return filesMap == null ? Collections.emptySet() : new HashSet<>(filesMap.keySet());
+        }
+
+        private Content getContent(Artifact artifact) throws ArtifactNotFoundException {
+            Map<String, Map<String, Map<Artifact, Content>>> artifactMap = contents.get(artifact.getGroupId());
+            Map<String, Map<Artifact, Content>> versionMap =
+                    (artifactMap == null ? null : artifactMap.get(artifact.getArtifactId()));
+            Map<Artifact, Content> filesMap = (versionMap == null ? null : versionMap.get(artifact.getVersion()));
+            Content content = (filesMap == null ? null : filesMap.get(artifact));
+            if (content == null) {
+                if (artifact.isSnapshot() && artifact.getTimestamp() == null && filesMap != null) {
+                    Artifact best = null;
+                    for (Map.Entry<Artifact, Content> entry : filesMap.entrySet()) {
+                        Artifact a = entry.getKey();
+                        if (artifact.equalSnapshots(a) && (best == null || best.compareTo(a) < 0)) {
+                            best = a;
+                            content = entry.getValue();
+                        }
+                    }
+                    if (content == null) {
+                        throw new ArtifactNotFoundException(artifact);
+                    }
+                } else {
+                    throw new ArtifactNotFoundException(artifact);
+                }
+            }
+            return content;
+        }
+    }
+
     private static final Comparator<String> INSTANCE = new VersionComparator();
 
     /**
@@ -727,6 +1010,16 @@ public class MockArtifactStore extends BaseArtifactStore {
          * Returns the SHA-1 checksum of the content, if available.
          */
         String getSha1Checksum();
+
+        /**
+         * Returns the file holding the content, if there is one.
+         *
+         * @return the file holding the content or {@code null} if the content is not held in a file.
+         * @since 2.0.0
+         */
+        default Path getPath() {
+            return null;
+        }
     }
 
     /**
@@ -802,7 +1095,12 @@ public class MockArtifactStore extends BaseArtifactStore {
 
         private final Long lastModified;
 
-        private final String sha1Checksum;
+        /**
+         * The SHA-1 checksum, computed when first asked for.
+         *
+         * @since 2.0.0
+         */
+        private volatile String sha1Checksum;
 
         /**
          * Creates a new instance.
@@ -814,11 +1112,6 @@ public class MockArtifactStore extends BaseArtifactStore {
         private FileContent(File file, Long lastModified) {
             this.file = file;
             this.lastModified = lastModified != null ? lastModified : file.lastModified();
-            try (InputStream in = getInputStream()) {
-                this.sha1Checksum = DigestUtils.sha1Hex(in);
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
-            }
         }
 
         @Override
@@ -838,7 +1131,21 @@ public class MockArtifactStore extends BaseArtifactStore {
 
         @Override
         public String getSha1Checksum() {
-            return sha1Checksum;
+            String checksum = sha1Checksum;
+            if (checksum == null) {
+                try (InputStream inputStream = getInputStream()) {
+                    checksum = DigestUtils.sha1Hex(inputStream);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                sha1Checksum = checksum;
+            }
+            return checksum;
+        }
+
+        @Override
+        public Path getPath() {
+            return file.toPath();
         }
     }
 
@@ -846,55 +1153,151 @@ public class MockArtifactStore extends BaseArtifactStore {
 
         private final Long lastModified;
 
-        private final Archiver archiver;
+        private final ArchiverManager archiverManager;
 
         private final FileSet fileSet;
 
-        private File archivedFile;
+        /**
+         * The archives kept across restarts, or {@code null} if archives are not kept.
+         *
+         * @since 2.0.0
+         */
+        private final ArchiveCache archiveCache;
 
-        private String sha1Checksum;
+        /**
+         * The archive, once its creation started.
+         *
+         * @since 2.0.0
+         */
+        private final AtomicReference<CompletableFuture<BuiltArchive>> archive = new AtomicReference<>();
 
         /**
          * @param archiverManager the archiver manager to use for creating the archive
          * @param directory the directory to archive
          * @param lazy      {@code false} if the archive should be created immediately
          * @param lastModified the last modified timestamp, or {@code null} to use the directory's last modified time
+         * @param archiveCache the archives kept across restarts, or {@code null} if archives are not kept
          * @since 1.0
          */
-        private DirectoryContent(ArchiverManager archiverManager, FileSet fileSet, boolean lazy, Long lastModified) {
+        private DirectoryContent(
+                ArchiverManager archiverManager,
+                FileSet fileSet,
+                boolean lazy,
+                Long lastModified,
+                ArchiveCache archiveCache) {
+            this.archiverManager = archiverManager;
             this.fileSet = fileSet;
+            this.archiveCache = archiveCache;
 
             File directory = fileSet.getDirectory();
             this.lastModified = lastModified != null ? lastModified : directory.lastModified();
 
-            try {
-                this.archiver = archiverManager.getArchiver(directory);
-            } catch (NoSuchArchiverException e) {
-                throw new IllegalStateException(
-                        "Could not find archiver for directory: " + directory + " available archivers: "
-                                + archiverManager.getAvailableArchivers(),
-                        e);
-            }
+            // fail early on directories that cannot be archived
+            newArchiver();
 
             if (!lazy) {
-                createArchive();
+                getArchive();
             }
         }
 
-        private void createArchive() {
-            File directory = fileSet.getDirectory();
-
-            synchronized (directory) {
-                archivedFile = new File(directory.getParentFile(), "_" + directory.getName());
-                archiver.setDestFile(archivedFile);
-                archiver.addFileSet(fileSet);
+        /**
+         * Returns the archive of the directory. The first caller creates it, callers asking while it is being
+         * created wait for, and share, its outcome. A failed creation is retried by the next caller.
+         *
+         * @return the archive.
+         * @since 2.0.0
+         */
+        private BuiltArchive getArchive() {
+            CompletableFuture<BuiltArchive> future = archive.get();
+            if (future == null) {
+                CompletableFuture<BuiltArchive> creation = new CompletableFuture<>();
+                future = archive.compareAndExchange(null, creation);
+                if (future == null) {
+                    future = creation;
+                    try {
+                        creation.complete(createArchive());
+                    } catch (RuntimeException | Error e) {
+                        archive.compareAndSet(creation, null);
+                        creation.completeExceptionally(e);
+                    }
+                }
+            }
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw cause instanceof RuntimeException
+                        ? (RuntimeException) cause
+                        : new IllegalStateException(cause.getMessage(), cause);
+            }
+        }
 
+        private BuiltArchive createArchive() {
+            File directory = fileSet.getDirectory();
+            long start = System.nanoTime();
+            BuiltArchive built;
+            if (archiveCache == null) {
+                File file = new File(directory.getParentFile(), "_" + directory.getName());
+                buildArchive(file);
+                try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+                    built = new BuiltArchive(file, DigestUtils.sha1Hex(inputStream));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                ArchiveCache.Archive cached;
                 try {
-                    archiver.setLastModifiedTime(Files.getLastModifiedTime(directory.toPath()));
-                    archiver.createArchive();
-                } catch (ArchiverException | IOException e) {
+                    cached = archiveCache.get(directory, this::buildArchive);
+                } catch (IOException e) {
                     throw new RuntimeException(e.getMessage(), e);
                 }
+                built = new BuiltArchive(cached.getFile(), cached.getSha1Checksum());
+                if (cached.isReused()) {
+                    if (LOGGER != null) {
+                        LOGGER.info("Reused archive {} of {}", cached.getFile(), directory);
+                    }
+                    return built;
+                }
+            }
+            if (LOGGER != null) {
+                LOGGER.info(
+                        "Archived {} in {} ms", directory, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+            return built;
+        }
+
+        private void buildArchive(File destination) {
+            Archiver archiver = newArchiver();
+            archiver.setDestFile(destination);
+            archiver.addFileSet(fileSet);
+
+            try {
+                archiver.setLastModifiedTime(
+                        Files.getLastModifiedTime(fileSet.getDirectory().toPath()));
+                archiver.createArchive();
+            } catch (ArchiverException | IOException e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Looks up a new archiver for the directory, as archivers keep the files added to them.
+         *
+         * @return the archiver.
+         * @since 2.0.0
+         */
+        private Archiver newArchiver() {
+            File directory = fileSet.getDirectory();
+            try {
+                return archiverManager.getArchiver(directory);
+            } catch (NoSuchArchiverException e) {
+                throw new IllegalStateException(
+                        "Could not find archiver for directory: " + directory + " available archivers: "
+                                + archiverManager.getAvailableArchivers(),
+                        e);
             }
         }
 
@@ -905,30 +1308,121 @@ public class MockArtifactStore extends BaseArtifactStore {
 
         @Override
         public InputStream getInputStream() throws IOException {
-            if (archivedFile == null) {
-                createArchive();
-            }
-            return Files.newInputStream(archivedFile.toPath());
+            return Files.newInputStream(getArchive().file.toPath());
         }
 
         @Override
         public long getSize() {
-            if (archivedFile == null) {
-                createArchive();
-            }
-            return archivedFile.length();
+            return getArchive().size;
         }
 
         @Override
         public String getSha1Checksum() {
-            if (sha1Checksum == null) {
-                try (InputStream inputStream = getInputStream()) {
-                    sha1Checksum = DigestUtils.sha1Hex(inputStream);
-                } catch (IOException e) {
-                    throw new UncheckedIOException(e);
+            return getArchive().sha1Checksum;
+        }
+
+        @Override
+        public Path getPath() {
+            return getArchive().file.toPath();
+        }
+
+        @Override
+        public String toString() {
+            return fileSet.getDirectory().toString();
+        }
+    }
+
+    /**
+     * A complete archive of a directory, with its size and checksum.
+     *
+     * @since 2.0.0
+     */
+    private static final class BuiltArchive {
+
+        private final File file;
+
+        private final long size;
+
+        private final String sha1Checksum;
+
+        private BuiltArchive(File file, String sha1Checksum) {
+            this.file = file;
+            this.size = file.length();
+            this.sha1Checksum = sha1Checksum;
+        }
+    }
+
+    /**
+     * Content of a directory, archived while it is read. The size and checksum are measured by reading the archive
+     * once, which yields the same bytes as every later read.
+     *
+     * @since 2.0.0
+     */
+    private static class StreamedDirectoryContent implements Content {
+
+        private final long lastModified;
+
+        private final DirectoryZip zip;
+
+        private long size;
+
+        private String sha1Checksum;
+
+        /**
+         * @param zip the archive of the directory
+         * @param lastModified the last modified timestamp, or {@code null} to use the directory's last modified time
+         * @since 2.0.0
+         */
+        private StreamedDirectoryContent(DirectoryZip zip, Long lastModified) {
+            this.zip = zip;
+            this.lastModified =
+                    lastModified != null ? lastModified : zip.getDirectory().lastModified();
+        }
+
+        /**
+         * Reads the archive once to learn its size and checksum.
+         *
+         * @since 2.0.0
+         */
+        private synchronized void measure() {
+            if (sha1Checksum != null) {
+                return;
+            }
+            MessageDigest digest = DigestUtils.getSha1Digest();
+            long count = 0;
+            byte[] buffer = new byte[8192];
+            try (InputStream inputStream = zip.open()) {
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                    count += read;
                 }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+            size = count;
+            sha1Checksum = Hex.encodeHexString(digest.digest());
+        }
 
+        @Override
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return zip.open();
+        }
+
+        @Override
+        public synchronized long getSize() {
+            measure();
+            return size;
+        }
+
+        @Override
+        public synchronized String getSha1Checksum() {
+            measure();
             return sha1Checksum;
         }
     }
@@ -967,4 +1461,141 @@ public class MockArtifactStore extends BaseArtifactStore {
             versioning.addSnapshotVersion(snapshotVersion);
         }
     }
+
+    /**
+     * How a {@link MockArtifactStore} scans its root and archives the directories it finds.
+     *
+     * @since 2.0.0
+     */
+    public static final class Options {
+
+        private boolean lazyArchiver = true;
+
+        private TransformDirectiveSourceFactory transformDirectiveSourceFactory;
+
+        private int scanThreads = DEFAULT_SCAN_THREADS;
+
+        private int archiveThreads = DEFAULT_ARCHIVE_THREADS;
+
+        private File archiveCacheDirectory;
+
+        private boolean streamArchives;
+
+        /**
+         * @return {@code true} if directories are archived when first used, {@code false} if they are archived while
+         *         the root is scanned.
+         * @since 2.0.0
+         */
+        public boolean isLazyArchiver() {
+            return lazyArchiver;
+        }
+
+        /**
+         * @param lazyArchiver {@code true} to archive directories when first used, {@code false} to archive them while
+         *                     the root is scanned. Defaults to {@code true}.
+         * @return these options.
+         * @since 2.0.0
+         */
+        public Options setLazyArchiver(boolean lazyArchiver) {
+            this.lazyArchiver = lazyArchiver;
+            return this;
+        }
+
+        /**
+         * @return the source of the transformations applied to archived directories, or {@code null} if none.
+         * @since 2.0.0
+         */
+        public TransformDirectiveSourceFactory getTransformDirectiveSourceFactory() {
+            return transformDirectiveSourceFactory;
+        }
+
+        /**
+         * @param transformDirectiveSourceFactory the source of the transformations applied to archived directories,
+         *                                        {@code null} for none.
+         * @return these options.
+         * @since 2.0.0
+         */
+        public Options setTransformDirectiveSourceFactory(
+                TransformDirectiveSourceFactory transformDirectiveSourceFactory) {
+            this.transformDirectiveSourceFactory = transformDirectiveSourceFactory;
+            return this;
+        }
+
+        /**
+         * @return the number of threads scanning the POMs.
+         * @since 2.0.0
+         */
+        public int getScanThreads() {
+            return scanThreads;
+        }
+
+        /**
+         * @param scanThreads the number of threads scanning the POMs, {@code 1} to scan on the calling thread.
+         *                    Defaults to {@link MockArtifactStore#DEFAULT_SCAN_THREADS}.
+         * @return these options.
+         * @since 2.0.0
+         */
+        public Options setScanThreads(int scanThreads) {
+            this.scanThreads = scanThreads;
+            return this;
+        }
+
+        /**
+         * @return the number of threads archiving all directories in the background.
+         * @since 2.0.0
+         */
+        public int getArchiveThreads() {
+            return archiveThreads;
+        }
+
+        /**
+         * @param archiveThreads the number of threads archiving all directories in the background once the POMs are
+         *                       scanned, {@code 0} to archive them as set by {@link #setLazyArchiver(boolean)}.
+         *                       Defaults to {@link MockArtifactStore#DEFAULT_ARCHIVE_THREADS}.
+         * @return these options.
+         * @since 2.0.0
+         */
+        public Options setArchiveThreads(int archiveThreads) {
+            this.archiveThreads = archiveThreads;
+            return this;
+        }
+
+        /**
+         * @return the directory keeping archives across restarts, or {@code null} if none.
+         * @since 2.0.0
+         */
+        public File getArchiveCacheDirectory() {
+            return archiveCacheDirectory;
+        }
+
+        /**
+         * @param archiveCacheDirectory the directory keeping archives, and their checksums, across restarts, or
+         *                              {@code null} to archive the directories on every start.
+         * @return these options.
+         * @since 2.0.0
+         */
+        public Options setArchiveCacheDirectory(File archiveCacheDirectory) {
+            this.archiveCacheDirectory = archiveCacheDirectory;
+            return this;
+        }
+
+        /**
+         * @return {@code true} if the zip archives of directories are generated while they are served.
+         * @since 2.0.0
+         */
+        public boolean isStreamArchives() {
+            return streamArchives;
+        }
+
+        /**
+         * @param streamArchives {@code true} to generate the zip archives (jar, war, ear and zip) of directories while
+         *                       they are served, without writing any file; other archives are built as before.
+         * @return these options.
+         * @since 2.0.0
+         */
+        public Options setStreamArchives(boolean streamArchives) {
+            this.streamArchives = streamArchives;
+            return this;
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package org.codehaus.mojo.mrm.plugin;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.codehaus.mojo.mrm.api.maven.ArtifactStore;
+import org.codehaus.mojo.mrm.impl.maven.HttpProxyArtifactStore;
+
+/**
+ * A proxy of remote repositories that fetches their content directly over HTTP, without the current Maven session.
+ *
+ * @since 2.0.0
+ */
+public class HttpProxyRepo implements ArtifactStoreFactory {
+
+    /**
+     * The URLs of the remote repositories, in order of precedence.
+     *
+     * @since 2.0.0
+     */
+    private List<String> urls;
+
+    /**
+     * The directory where fetched content is cached.
+     *
+     * @since 2.0.0
+     */
+    private File cacheDirectory;
+
+    /**
+     * The maximum number of requests sent to the remote repositories at the same time.
+     *
+     * @since 2.0.0
+     */
+    private int maxConcurrentRequests = HttpProxyArtifactStore.DEFAULT_MAX_CONCURRENT_REQUESTS;
+
+    /**
+     * How long fetched metadata is reused before it is fetched again, in milliseconds.
+     *
+     * @since 2.0.0
+     */
+    private long metadataUpdateInterval = HttpProxyArtifactStore.DEFAULT_METADATA_UPDATE_INTERVAL;
+
+    @Override
+    public ArtifactStore newInstance() {
+        if (urls == null || urls.isEmpty()) {
+            throw new IllegalStateException("Must provide the 'urls' of the http proxy repository");
+        }
+        if (cacheDirectory == null) {
+            throw new IllegalStateException("Must provide the 'cacheDirectory' of the http proxy repository");
+        }
+        List<URI> remotes = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            remotes.add(URI.create(url.trim()));
+        }
+        return new HttpProxyArtifactStore(remotes, cacheDirectory, maxConcurrentRequests, metadataUpdateInterval);
+    }
+
+    @Override
+    public String toString() {
+        return "HTTP proxy (urls: " + urls + ", cache: " + cacheDirectory + ')';
+    }
+}
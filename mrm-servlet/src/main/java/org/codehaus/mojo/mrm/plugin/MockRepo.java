@@ -54,6 +54,37 @@ public class MockRepo implements ArtifactStoreFactory {
      */
     private String transformDirectiveSource;
 
+    /**
+     * The number of threads scanning the POMs of the {@link #source} at startup, {@code 1} to scan them one by one.
+     *
+     * @since 2.0.0
+     */
+    private int scanThreads = MockArtifactStore.DEFAULT_SCAN_THREADS;
+
+    /**
+     * The number of threads archiving all directories in the background right after startup, {@code 0} to archive
+     * them as set by {@link #lazyArchiver}.
+     *
+     * @since 2.0.0
+     */
+    private int archiveThreads = MockArtifactStore.DEFAULT_ARCHIVE_THREADS;
+
+    /**
+     * Keep the archives of directories, and their checksums, in this directory across restarts. An archive is
+     * reused for as long as the directory tree it was built from did not change.
+     *
+     * @since 2.0.0
+     */
+    private File archiveCacheDirectory;
+
+    /**
+     * Set to {@code true} to generate the archives of jar, war, ear and zip directories while they are served,
+     * without writing them next to the sources.
+     *
+     * @since 2.0.0
+     */
+    private boolean streamArchives;
+
     @Override
     public ArtifactStore newInstance(FactoryHelper factoryHelper) {
         if (source == null) {
@@ -89,7 +120,14 @@ public class MockRepo implements ArtifactStoreFactory {
             };
         }
 
-        return new MockArtifactStore(factoryHelper.getArchiverManager(), root, lazyArchiver, tds);
+        MockArtifactStore.Options options = new MockArtifactStore.Options()
+                .setLazyArchiver(lazyArchiver)
+                .setTransformDirectiveSourceFactory(tds)
+                .setScanThreads(scanThreads)
+                .setArchiveThreads(archiveThreads)
+                .setArchiveCacheDirectory(archiveCacheDirectory)
+                .setStreamArchives(streamArchives);
+        return new MockArtifactStore(factoryHelper.getArchiverManager(), root, options);
     }
 
     /**
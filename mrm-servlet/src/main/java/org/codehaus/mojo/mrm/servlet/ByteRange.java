@@ -0,0 +1,156 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.servlet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A single satisfiable byte range of an HTTP <code>Range</code> request.
+ *
+ * @since 2.0.0
+ */
+final class ByteRange {
+
+    /**
+     * The maximum number of ranges we are prepared to serve in one request; anything above is served in full.
+     *
+     * @since 2.0.0
+     */
+    private static final int MAX_RANGES = 32;
+
+    /**
+     * The offset of the first byte of the range.
+     *
+     * @since 2.0.0
+     */
+    private final long start;
+
+    /**
+     * The offset of the last byte of the range (inclusive).
+     *
+     * @since 2.0.0
+     */
+    private final long end;
+
+    private ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Returns the offset of the first byte of the range.
+     *
+     * @return the offset of the first byte of the range.
+     * @since 2.0.0
+     */
+    long getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the offset of the last byte of the range (inclusive).
+     *
+     * @return the offset of the last byte of the range.
+     * @since 2.0.0
+     */
+    long getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns the number of bytes in the range.
+     *
+     * @return the number of bytes in the range.
+     * @since 2.0.0
+     */
+    long getLength() {
+        return end - start + 1;
+    }
+
+    /**
+     * Returns the value of the <code>Content-Range</code> header for this range.
+     *
+     * @param size the size of the complete entity.
+     * @return the value of the <code>Content-Range</code> header.
+     * @since 2.0.0
+     */
+    String toContentRange(long size) {
+        return "bytes " + start + '-' + end + '/' + size;
+    }
+
+    /**
+     * Parses the value of a <code>Range</code> header against an entity of the specified size.
+     *
+     * @param header the value of the <code>Range</code> header.
+     * @param size   the size of the entity.
+     * @return the satisfiable ranges in the order they were requested, an empty list if none of the ranges can be
+     *         satisfied or <code>null</code> if the header is not a valid byte range specification and should
+     *         therefore be ignored.
+     * @since 2.0.0
+     */
+    static List<ByteRange> parse(String header, long size) {
+        String value = header.trim();
+        if (!value.regionMatches(true, 0, "bytes=", 0, "bytes=".length())) {
+            return null;
+        }
+        String[] specs = value.substring("bytes=".length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+        List<ByteRange> result = new ArrayList<>(specs.length);
+        for (String spec : specs) {
+            spec = spec.trim();
+            int dash = spec.indexOf('-');
+            if (dash == -1) {
+                return null;
+            }
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty() && last.isEmpty()
+                    || !first.isEmpty() && !StringUtils.isNumeric(first)
+                    || !last.isEmpty() && !StringUtils.isNumeric(last)) {
+                return null;
+            }
+            try {
+                if (first.isEmpty()) {
+                    // suffix range: the last N bytes
+                    long suffix = Long.parseLong(last);
+                    if (suffix > 0 && size > 0) {
+                        result.add(new ByteRange(Math.max(0, size - suffix), size - 1));
+                    }
+                } else {
+                    long start = Long.parseLong(first);
+                    long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                    if (end < start) {
+                        return null;
+                    }
+                    if (start < size) {
+                        result.add(new ByteRange(start, Math.min(end, size - 1)));
+                    }
+                }
+            } catch (NumberFormatException e) {
+                // too large to be a valid offset
+                return null;
+            }
+        }
+        return result.isEmpty() ? Collections.emptyList() : result;
+    }
+}
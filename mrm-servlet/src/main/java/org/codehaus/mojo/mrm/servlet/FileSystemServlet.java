@@ -21,17 +21,28 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Strings;
 import org.codehaus.mojo.mrm.api.DefaultDirectoryEntry;
 import org.codehaus.mojo.mrm.api.DirectoryEntry;
 import org.codehaus.mojo.mrm.api.Entry;
@@ -67,6 +78,29 @@ public class FileSystemServlet extends HttpServlet {
      */
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        serve(req, resp, true);
+    }
+
+    /**
+     * Answers from the entry's size, last modified time and checksum only, the content is never opened.
+     *
+     * @since 2.0.0
+     */
+    @Override
+    protected void doHead(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        serve(req, resp, false);
+    }
+
+    /**
+     * Serves a <code>GET</code> or <code>HEAD</code> request.
+     *
+     * @param req         the request.
+     * @param resp        the response.
+     * @param includeBody <code>false</code> to only send the headers.
+     * @throws IOException if an I/O error occurs.
+     * @since 2.0.0
+     */
+    private void serve(HttpServletRequest req, HttpServletResponse resp, boolean includeBody) throws IOException {
         String path = req.getPathInfo();
         if (path == null) {
             path = req.getServletPath();
@@ -76,20 +110,51 @@ public class FileSystemServlet extends HttpServlet {
         if (entry instanceof FileEntry) {
             FileEntry fileEntry = (FileEntry) entry;
             long size = fileEntry.getSize();
-            if (size >= 0 && size < Integer.MAX_VALUE) {
-                resp.setContentLength((int) size);
-            }
-            resp.setContentType(getServletContext().getMimeType(fileEntry.getName()));
+            long lastModified = fileEntry.getLastModified();
+            String sha1Checksum = fileEntry.getSha1Checksum();
 
-            LocalDateTime lastModifiedDate = LocalDateTime.ofEpochSecond(
-                    fileEntry.getLastModified() / 1000, (int) (fileEntry.getLastModified() % 1000), ZoneOffset.UTC);
+            LocalDateTime lastModifiedDate =
+                    LocalDateTime.ofEpochSecond(lastModified / 1000, (int) (lastModified % 1000), ZoneOffset.UTC);
             String formattedLastModifiedDate =
                     lastModifiedDate.atZone(ZoneId.of("UTC")).format(DateTimeFormatter.RFC_1123_DATE_TIME);
             resp.addHeader("Last-Modified", formattedLastModifiedDate);
 
-            Optional.ofNullable(fileEntry.getSha1Checksum())
-                    .ifPresent(sha1Checksum -> resp.addHeader("x-checksum-sha1", sha1Checksum));
+            String etag = getETag(sha1Checksum, lastModified, size);
+            resp.addHeader("ETag", etag);
+
+            Optional.ofNullable(sha1Checksum).ifPresent(checksum -> resp.addHeader("x-checksum-sha1", checksum));
+
+            if (isNotModified(req, etag, lastModified)) {
+                resp.setStatus(HttpURLConnection.HTTP_NOT_MODIFIED);
+                return;
+            }
+
+            String contentType = getServletContext().getMimeType(fileEntry.getName());
+            if (!includeBody) {
+                if (size >= 0) {
+                    resp.setHeader("Accept-Ranges", "bytes");
+                    resp.setContentLengthLong(size);
+                }
+                resp.setContentType(contentType);
+                return;
+            }
+            if (size >= 0) {
+                resp.setHeader("Accept-Ranges", "bytes");
+                String range = req.getHeader("Range");
+                if (range != null && isRangeCurrent(req, etag, lastModified)) {
+                    List<ByteRange> ranges = ByteRange.parse(range, size);
+                    if (ranges != null) {
+                        sendRanges(resp, fileEntry, contentType, size, ranges);
+                        return;
+                    }
+                }
+                resp.setContentLengthLong(size);
+            }
+            resp.setContentType(contentType);
 
+            if (size >= 0 && sendFile(resp, fileEntry, 0, size, true)) {
+                return;
+            }
             try (InputStream source = fileEntry.getInputStream()) {
                 IOUtils.copy(source, resp.getOutputStream());
             }
@@ -99,6 +164,237 @@ public class FileSystemServlet extends HttpServlet {
         resp.sendError(HttpURLConnection.HTTP_NOT_FOUND);
     }
 
+    /**
+     * Builds the entity tag for an entry. A strong tag is derived from the SHA-1 checksum when the entry provides one,
+     * otherwise a weak tag is derived from the last modified time and size.
+     *
+     * @param sha1Checksum the SHA-1 checksum of the entry or <code>null</code> if not known.
+     * @param lastModified the last modified time of the entry.
+     * @param size         the size of the entry.
+     * @return the entity tag, including the quotes.
+     * @since 2.0.0
+     */
+    private static String getETag(String sha1Checksum, long lastModified, long size) {
+        if (StringUtils.isNotEmpty(sha1Checksum)) {
+            // sidecar files may carry the file name after the checksum
+            return '"' + sha1Checksum.trim().split("\\s+")[0] + '"';
+        }
+        return "W/\"" + Long.toHexString(lastModified) + '-' + Long.toHexString(size) + '"';
+    }
+
+    /**
+     * Evaluates the <code>If-None-Match</code> and <code>If-Modified-Since</code> request headers as described in
+     * RFC 9110. <code>If-Modified-Since</code> is only taken into account when <code>If-None-Match</code> is absent.
+     *
+     * @param req          the request.
+     * @param etag         the entity tag of the entry.
+     * @param lastModified the last modified time of the entry.
+     * @return <code>true</code> if the client copy is still current and a <code>304</code> should be sent.
+     * @since 2.0.0
+     */
+    private static boolean isNotModified(HttpServletRequest req, String etag, long lastModified) {
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            String opaqueTag = Strings.CS.removeStart(etag, "W/");
+            for (String candidate : ifNoneMatch.split(",")) {
+                candidate = candidate.trim();
+                if ("*".equals(candidate) || opaqueTag.equals(Strings.CS.removeStart(candidate, "W/"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (req.getHeader("If-Modified-Since") != null) {
+            try {
+                long ifModifiedSince = req.getDateHeader("If-Modified-Since");
+                // HTTP dates only carry second precision
+                return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+            } catch (IllegalArgumentException e) {
+                // invalid date, ignore the header
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Evaluates the <code>If-Range</code> request header. A range request is only honoured if the client's copy is
+     * still current, which requires a strong entity tag match or an exact last modified match.
+     *
+     * @param req          the request.
+     * @param etag         the entity tag of the entry.
+     * @param lastModified the last modified time of the entry.
+     * @return <code>true</code> if the <code>Range</code> header should be honoured.
+     * @since 2.0.0
+     */
+    private static boolean isRangeCurrent(HttpServletRequest req, String etag, long lastModified) {
+        String ifRange = req.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return !etag.startsWith("W/") && etag.equals(ifRange);
+        }
+        try {
+            return lastModified / 1000 == req.getDateHeader("If-Range") / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Sends a <code>206 Partial Content</code> response for the requested ranges, using a
+     * <code>multipart/byteranges</code> body when more than one range was requested.
+     *
+     * @param resp        the response.
+     * @param entry       the entry to serve.
+     * @param contentType the content type of the entry.
+     * @param size        the size of the entry.
+     * @param ranges      the satisfiable ranges, if empty a <code>416</code> response is sent.
+     * @throws IOException if an I/O error occurs.
+     * @since 2.0.0
+     */
+    private void sendRanges(
+            HttpServletResponse resp, FileEntry entry, String contentType, long size, List<ByteRange> ranges)
+            throws IOException {
+        if (ranges.isEmpty()) {
+            resp.setHeader("Content-Range", "bytes */" + size);
+            resp.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        resp.setStatus(HttpURLConnection.HTTP_PARTIAL);
+        if (ranges.size() == 1) {
+            ByteRange range = ranges.get(0);
+            resp.setContentType(contentType);
+            resp.setHeader("Content-Range", range.toContentRange(size));
+            resp.setContentLengthLong(range.getLength());
+            if (!sendFile(resp, entry, range.getStart(), range.getLength(), true)) {
+                copyRange(entry, range, resp.getOutputStream());
+            }
+            return;
+        }
+
+        String boundary = UUID.randomUUID().toString();
+        resp.setContentType("multipart/byteranges; boundary=" + boundary);
+        OutputStream output = resp.getOutputStream();
+        for (ByteRange range : ranges) {
+            StringBuilder partHeader =
+                    new StringBuilder("\r\n--").append(boundary).append("\r\n");
+            if (contentType != null) {
+                partHeader.append("Content-Type: ").append(contentType).append("\r\n");
+            }
+            partHeader
+                    .append("Content-Range: ")
+                    .append(range.toContentRange(size))
+                    .append("\r\n\r\n");
+            output.write(partHeader.toString().getBytes(StandardCharsets.US_ASCII));
+            if (!sendFile(resp, entry, range.getStart(), range.getLength(), false)) {
+                copyRange(entry, range, output);
+            }
+        }
+        output.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Sends a region of an entry straight from the file backing it, if it has one, so that the entry does not have to
+     * open a stream of its own and skip to the offset.
+     *
+     * @param resp      the response, with all headers already set.
+     * @param entry     the entry.
+     * @param offset    the offset of the first byte to send.
+     * @param length    the number of bytes to send.
+     * @param wholeBody <code>true</code> if the region is the rest of the body of the response, <code>false</code> if
+     *                  it is one part of a multipart body.
+     * @return <code>false</code> if the entry is not backed by a file, in which case nothing was sent.
+     * @throws IOException if an I/O error occurs.
+     * @since 2.0.0
+     */
+    private boolean sendFile(HttpServletResponse resp, FileEntry entry, long offset, long length, boolean wholeBody)
+            throws IOException {
+        Path file = entry.getPath();
+        if (file == null) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (wholeBody) {
+                sendFile(resp, channel, offset, length);
+            } else {
+                transfer(channel, offset, length, resp.getOutputStream());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sends a region of a file as the rest of the body of the response. This copies the region to the output stream
+     * of the response, subclasses may override this to hand the channel to the servlet container instead. The channel
+     * is closed by the caller once this returns.
+     *
+     * @param resp    the response, with all headers already set.
+     * @param channel the open file.
+     * @param offset  the offset of the first byte to send.
+     * @param length  the number of bytes to send.
+     * @throws IOException if an I/O error occurs, including the file being shorter than expected.
+     * @since 2.0.0
+     */
+    protected void sendFile(HttpServletResponse resp, FileChannel channel, long offset, long length)
+            throws IOException {
+        transfer(channel, offset, length, resp.getOutputStream());
+    }
+
+    /**
+     * Transfers a region of a file channel to a stream. As the target is neither a file nor a socket channel, the JDK
+     * copies the region through a buffer on the heap.
+     *
+     * @param channel the file channel.
+     * @param offset  the offset of the first byte to transfer.
+     * @param length  the number of bytes to transfer.
+     * @param output  the stream to transfer to, it is not closed.
+     * @throws IOException if an I/O error occurs.
+     * @since 2.0.0
+     */
+    private static void transfer(FileChannel channel, long offset, long length, OutputStream output)
+            throws IOException {
+        WritableByteChannel target = Channels.newChannel(output);
+        long position = offset;
+        long end = offset + length;
+        while (position < end) {
+            long transferred = channel.transferTo(position, end - position, target);
+            if (transferred <= 0) {
+                throw new EOFException("File is shorter than its reported size");
+            }
+            position += transferred;
+        }
+    }
+
+    /**
+     * Copies a single range of an entry that is not backed by a file. The source stream is positioned with
+     * {@link InputStream#skip(long)} so that channel backed streams seek instead of reading through the skipped
+     * content.
+     *
+     * @param entry  the entry.
+     * @param range  the range to copy.
+     * @param output the stream to copy to.
+     * @throws IOException if an I/O error occurs.
+     * @since 2.0.0
+     */
+    private static void copyRange(FileEntry entry, ByteRange range, OutputStream output) throws IOException {
+        try (InputStream source = entry.getInputStream()) {
+            long remaining = range.getStart();
+            while (remaining > 0) {
+                long skipped = source.skip(remaining);
+                if (skipped <= 0) {
+                    if (source.read() == -1) {
+                        throw new EOFException("Entry is shorter than its reported size: " + entry);
+                    }
+                    skipped = 1;
+                }
+                remaining -= skipped;
+            }
+            IOUtils.copyLarge(source, output, 0, range.getLength());
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
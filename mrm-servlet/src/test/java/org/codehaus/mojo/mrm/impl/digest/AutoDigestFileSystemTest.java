@@ -0,0 +1,95 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.impl.digest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.codehaus.mojo.mrm.api.FileEntry;
+import org.codehaus.mojo.mrm.api.FileSystem;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AutoDigestFileSystemTest {
+
+    private static final byte[] CONTENT = "content".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void generatedDigestIsReusedUntilEntryChanges() throws Exception {
+        FileSystem backing = mock(FileSystem.class);
+        FileEntry entry = givenEntry(backing);
+        when(entry.getLastModified()).thenReturn(1L, 1L, 2L);
+        AutoDigestFileSystem fileSystem = new AutoDigestFileSystem(backing);
+
+        assertEquals(DigestUtils.md5Hex(CONTENT), read(fileSystem.get("/g/a.jar.md5")));
+        assertEquals(DigestUtils.md5Hex(CONTENT), read(fileSystem.get("/g/a.jar.md5")));
+        verify(entry, times(1)).getInputStream();
+
+        assertEquals(DigestUtils.md5Hex(CONTENT), read(fileSystem.get("/g/a.jar.md5")));
+        verify(entry, times(2)).getInputStream();
+    }
+
+    @Test
+    void sha1UsesKnownChecksum() throws Exception {
+        FileSystem backing = mock(FileSystem.class);
+        FileEntry entry = givenEntry(backing);
+        String sha1 = DigestUtils.sha1Hex(CONTENT);
+        when(entry.getSha1Checksum()).thenReturn(sha1 + "  a.jar\n");
+        AutoDigestFileSystem fileSystem = new AutoDigestFileSystem(backing);
+
+        assertEquals(sha1, read(fileSystem.get("/g/a.jar.sha1")));
+        verify(entry, never()).getInputStream();
+    }
+
+    @Test
+    void allDigestsAreComputedInOneRead() throws Exception {
+        FileSystem backing = mock(FileSystem.class);
+        FileEntry entry = givenEntry(backing);
+        AutoDigestFileSystem fileSystem = new AutoDigestFileSystem(backing);
+
+        assertEquals(DigestUtils.sha256Hex(CONTENT), read(fileSystem.get("/g/a.jar.sha256")));
+        assertEquals(DigestUtils.sha512Hex(CONTENT), read(fileSystem.get("/g/a.jar.sha512")));
+        assertEquals(DigestUtils.sha1Hex(CONTENT), read(fileSystem.get("/g/a.jar.sha1")));
+        assertEquals(DigestUtils.md5Hex(CONTENT), read(fileSystem.get("/g/a.jar.md5")));
+        verify(entry, times(1)).getInputStream();
+    }
+
+    private static FileEntry givenEntry(FileSystem backing) throws IOException {
+        FileEntry entry = mock(FileEntry.class);
+        when(entry.getName()).thenReturn("a.jar");
+        when(entry.getSize()).thenReturn((long) CONTENT.length);
+        when(entry.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(CONTENT));
+        when(backing.get("g/a.jar")).thenReturn(entry);
+        return entry;
+    }
+
+    private static String read(Object entry) throws IOException {
+        try (InputStream is = ((FileEntry) entry).getInputStream()) {
+            return IOUtils.toString(is, StandardCharsets.US_ASCII);
+        }
+    }
+}
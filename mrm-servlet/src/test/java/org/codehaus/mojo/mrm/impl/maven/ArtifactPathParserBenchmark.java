@@ -0,0 +1,147 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.impl.maven;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.codehaus.mojo.mrm.api.maven.Artifact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link ArtifactPathParser} with the regular expression based path matching it replaced. Both sides
+ * recognize the same paths in the same order: metadata, the archetype catalog, then artifacts.
+ * It is only compiled with the {@code benchmarks} profile, run {@link #main(String[])} with the test classpath of
+ * {@code mvn -Pbenchmarks test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArtifactPathParserBenchmark {
+
+    private static final String ARCHETYPE_CATALOG_PATH = "/archetype-catalog.xml";
+
+    @Param({
+        "/org/apache/maven/maven-metadata.xml",
+        "/archetype-catalog.xml",
+        "/org/apache/maven/maven-core/3.9.6/maven-core-3.9.6.jar",
+        "/org/apache/maven/maven-core/3.9.6/maven-core-3.9.6-sources.jar",
+        "/org/apache/maven/maven-core/4.0.0-SNAPSHOT/maven-core-4.0.0-20240101.123456-42.pom",
+        "/org/apache/maven/maven-core/4.0.0-SNAPSHOT/maven-core-4.0.0-SNAPSHOT-tests.jar"
+    })
+    public String path;
+
+    @Benchmark
+    public Object parser() {
+        if (ArtifactPathParser.isMetadata(path)) {
+            return Boolean.TRUE;
+        }
+        if (ARCHETYPE_CATALOG_PATH.equals(path)) {
+            return Boolean.TRUE;
+        }
+        return ArtifactPathParser.parseArtifact(path);
+    }
+
+    @Benchmark
+    public Object regex() {
+        if (ArtifactStoreFileSystem.METADATA.matcher(path).matches()) {
+            return Boolean.TRUE;
+        }
+        if (ArtifactStoreFileSystem.ARCHETYPE_CATALOG.matcher(path).matches()) {
+            return Boolean.TRUE;
+        }
+        return regexArtifact(path);
+    }
+
+    /**
+     * The artifact path matching as it was done before {@link ArtifactPathParser}.
+     */
+    private static Artifact regexArtifact(String path) {
+        Matcher snapshotArtifact = ArtifactStoreFileSystem.SNAPSHOT_ARTIFACT.matcher(path);
+        if (snapshotArtifact.matches()) {
+            String groupId =
+                    StringUtils.stripEnd(snapshotArtifact.group(1), "/").replace('/', '.');
+            String artifactId = snapshotArtifact.group(2);
+            String version = snapshotArtifact.group(3) + "-SNAPSHOT";
+            Pattern rule = Pattern.compile("\\Q" + artifactId + "\\E-(?:\\Q" + snapshotArtifact.group(3)
+                    + "\\E-(SNAPSHOT|(\\d{4})(\\d{2})(\\d{2})\\.(\\d{2})(\\d{2})(\\d{2})-(\\d+)))(?:-([^.]+))?"
+                    + "\\.([^/]*)");
+            Matcher matcher = rule.matcher(snapshotArtifact.group(4));
+            if (!matcher.matches()) {
+                return null;
+            }
+            if (matcher.group(1).equals("SNAPSHOT")) {
+                return new Artifact(groupId, artifactId, version, matcher.group(9), matcher.group(10));
+            }
+            Calendar cal = new GregorianCalendar();
+            cal.setTimeZone(TimeZone.getTimeZone("GMT"));
+            cal.set(Calendar.YEAR, Integer.parseInt(matcher.group(2)));
+            cal.set(Calendar.MONTH, Integer.parseInt(matcher.group(3)) - 1);
+            cal.set(Calendar.DAY_OF_MONTH, Integer.parseInt(matcher.group(4)));
+            cal.set(Calendar.HOUR_OF_DAY, Integer.parseInt(matcher.group(5)));
+            cal.set(Calendar.MINUTE, Integer.parseInt(matcher.group(6)));
+            cal.set(Calendar.SECOND, Integer.parseInt(matcher.group(7)));
+            cal.set(Calendar.MILLISECOND, 0);
+            return new Artifact(
+                    groupId,
+                    artifactId,
+                    version,
+                    matcher.group(9),
+                    matcher.group(10),
+                    cal.getTimeInMillis(),
+                    Integer.parseInt(matcher.group(8)));
+        }
+        Matcher matcher = ArtifactStoreFileSystem.ARTIFACT.matcher(path);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String classifier = matcher.group(5);
+        return new Artifact(
+                StringUtils.stripEnd(matcher.group(1), "/").replace('/', '.'),
+                matcher.group(2),
+                matcher.group(3),
+                classifier == null ? null : classifier.substring(1),
+                matcher.group(6));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(ArtifactPathParserBenchmark.class.getSimpleName())
+                        .build())
+                .run();
+    }
+}
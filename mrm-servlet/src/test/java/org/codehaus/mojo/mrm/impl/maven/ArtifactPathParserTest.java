@@ -0,0 +1,121 @@
+/*
+ * Copyright 2011 Stephen Connolly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codehaus.mojo.mrm.impl.maven;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import org.codehaus.mojo.mrm.api.maven.Artifact;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArtifactPathParserTest {
+
+    @Test
+    void metadata() {
+        assertTrue(ArtifactPathParser.isMetadata("/commons/maven-metadata.xml"));
+        assertTrue(ArtifactPathParser.isMetadata("/org/apache/maven/maven-metadata.xml"));
+        assertFalse(ArtifactPathParser.isMetadata("/maven-metadata.xml"));
+        assertFalse(ArtifactPathParser.isMetadata("/org//maven-metadata.xml"));
+        assertFalse(ArtifactPathParser.isMetadata("/org/amaven-metadata.xml"));
+        assertFalse(ArtifactPathParser.isMetadata("/commons/commons/1.0/commons-1.0.pom"));
+    }
+
+    @Test
+    void releaseArtifact() {
+        Artifact artifact = ArtifactPathParser.parseArtifact("/org/apache/maven/pom/1.0/pom-1.0.pom");
+        assertEquals("org.apache.maven", artifact.getGroupId());
+        assertEquals("pom", artifact.getArtifactId());
+        assertEquals("1.0", artifact.getVersion());
+        assertNull(artifact.getClassifier());
+        assertEquals("pom", artifact.getType());
+        assertNull(artifact.getTimestamp());
+
+        artifact = ArtifactPathParser.parseArtifact("/commons/commons/1.0/commons-1.0-tests.tar.gz");
+        assertEquals("commons", artifact.getGroupId());
+        assertEquals("tests", artifact.getClassifier());
+        assertEquals("tar.gz", artifact.getType());
+    }
+
+    @Test
+    void snapshotArtifact() {
+        Artifact artifact =
+                ArtifactPathParser.parseArtifact("/org/apache/maven/pom/1.0-SNAPSHOT/pom-1.0-SNAPSHOT-tests.jar");
+        assertEquals("1.0-SNAPSHOT", artifact.getVersion());
+        assertEquals("tests", artifact.getClassifier());
+        assertEquals("jar", artifact.getType());
+        assertNull(artifact.getTimestamp());
+        assertNull(artifact.getBuildNumber());
+
+        artifact =
+                ArtifactPathParser.parseArtifact("/org/apache/maven/pom/1.0-SNAPSHOT/pom-1.0-20110101.123456-56.pom");
+        assertEquals("org.apache.maven", artifact.getGroupId());
+        assertEquals("1.0-SNAPSHOT", artifact.getVersion());
+        assertNull(artifact.getClassifier());
+        assertEquals("pom", artifact.getType());
+        assertEquals(Integer.valueOf(56), artifact.getBuildNumber());
+        assertEquals("20110101.123456", artifact.getTimestampString());
+    }
+
+    @Test
+    void timestampMatchesLenientCalendar() {
+        // month 13 and day 32 roll over just as they do with a lenient calendar
+        Artifact artifact = ArtifactPathParser.parseArtifact("/g/a/1-SNAPSHOT/a-1-20111332.256199-1.jar");
+        Calendar cal = new GregorianCalendar(TimeZone.getTimeZone("GMT"));
+        cal.clear();
+        cal.set(2011, 12, 32, 25, 61, 99);
+        assertEquals(Long.valueOf(cal.getTimeInMillis()), artifact.getTimestamp());
+    }
+
+    @Test
+    void agreesWithRegex() {
+        String[] paths = {
+            "/commons/maven-metadata.xml",
+            "/commons/commons/1.0/commons-1.0.pom",
+            "/commons/commons/1.0/commons-1.0-tests.jar",
+            "/commons/commons/1.0/commons-1.0-.jar",
+            "/commons/commons/1.0/commons-1.0",
+            "/commons/commons/1.0/commons-1.0.",
+            "/commons/commons/1.0/commons-1.1.pom",
+            "/commons/commons/1.0/other-1.0.pom",
+            "/commons/1.0/commons-1.0.pom",
+            "//commons/1.0/commons-1.0.pom",
+            "/org/apache/maven/pom/1.0-SNAPSHOT/pom-1.0-SNAPSHOT.pom",
+            "/org/apache/maven/pom/1.0-SNAPSHOT/pom-1.0-20110101.123456-56.pom",
+            "/org/apache/maven/pom/1.0-SNAPSHOT/pom-1.0-20110101.123456-56-tests.jar",
+            "/org/apache/maven/pom/1.0-SNAPSHOT/pom-1.0-20110101.123456-.pom",
+            "/org/apache/maven/pom/1.0-SNAPSHOT/pom-1.0-2011010.123456-1.pom",
+            "/org/apache/maven/pom/-SNAPSHOT/pom--SNAPSHOT.pom",
+            "/org/apache/maven/pom/1.0-SNAPSHOT/pom-1.0-SNAPSHOTtests.jar"
+        };
+        for (String path : paths) {
+            assertEquals(
+                    ArtifactStoreFileSystem.METADATA.matcher(path).matches(),
+                    ArtifactPathParser.isMetadata(path),
+                    path);
+            boolean artifact =
+                    ArtifactStoreFileSystem.SNAPSHOT_ARTIFACT.matcher(path).matches()
+                            || ArtifactStoreFileSystem.ARTIFACT.matcher(path).matches();
+            assertEquals(artifact, ArtifactPathParser.parseArtifact(path) != null, path);
+        }
+    }
+}
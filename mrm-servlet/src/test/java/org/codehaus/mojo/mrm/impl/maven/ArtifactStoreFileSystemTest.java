@@ -16,9 +16,12 @@
 
 package org.codehaus.mojo.mrm.impl.maven;
 
+import java.io.InputStream;
 import java.util.regex.Matcher;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.maven.archetype.catalog.ArchetypeCatalog;
+import org.apache.maven.artifact.repository.metadata.Metadata;
 import org.codehaus.mojo.mrm.api.Entry;
 import org.codehaus.mojo.mrm.api.FileEntry;
 import org.codehaus.mojo.mrm.api.maven.ArchetypeCatalogNotFoundException;
@@ -33,6 +36,8 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ArtifactStoreFileSystemTest {
@@ -183,4 +188,27 @@ class ArtifactStoreFileSystemTest {
         FileEntry entry = (FileEntry) system.get("archetype-catalog.xml");
         assertEquals("archetype-catalog.xml", entry.getName());
     }
+
+    @Test
+    void metadataIsSerializedOncePerModification() throws Exception {
+        ArtifactStore store = mock(ArtifactStore.class);
+        Metadata metadata = new Metadata();
+        metadata.setGroupId("commons");
+        when(store.getMetadataLastModified("commons")).thenReturn(1L, 1L, 1L, 1L, 1L, 2L);
+        when(store.getMetadata("commons")).thenReturn(metadata);
+        ArtifactStoreFileSystem system = new ArtifactStoreFileSystem(store);
+
+        FileEntry entry = (FileEntry) system.get("/commons/maven-metadata.xml");
+        byte[] content;
+        try (InputStream inputStream = entry.getInputStream()) {
+            content = IOUtils.toByteArray(inputStream);
+        }
+        assertEquals(content.length, entry.getSize());
+        entry = (FileEntry) system.get("/commons/maven-metadata.xml");
+        assertEquals(content.length, entry.getSize());
+        verify(store, times(1)).getMetadata("commons");
+
+        entry.getSize();
+        verify(store, times(2)).getMetadata("commons");
+    }
 }
@@ -1,22 +1,47 @@
 package org.codehaus.mojo.mrm.impl.maven;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.maven.archetype.catalog.ArchetypeCatalog;
 import org.apache.maven.artifact.repository.metadata.Metadata;
 import org.apache.maven.artifact.repository.metadata.Snapshot;
 import org.apache.maven.artifact.repository.metadata.SnapshotVersion;
 import org.apache.maven.artifact.repository.metadata.Versioning;
+import org.codehaus.mojo.mrm.api.maven.Artifact;
+import org.codehaus.mojo.mrm.api.maven.ArtifactNotFoundException;
 import org.codehaus.mojo.mrm.api.maven.ArtifactStore;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class CompositeArtifactStoreTest {
 
+    private static final Artifact ARTIFACT = new Artifact("groupId", "artifactId", "1.0", "jar");
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
     @Test
     void getArchetypeCatalog() throws Exception {
         ArtifactStore store = mock(ArtifactStore.class);
@@ -58,6 +83,124 @@ class CompositeArtifactStoreTest {
         assertNotNull(metadata);
     }
 
+    @Test
+    void parallelLookupKeepsStorePrecedence() throws Exception {
+        ArtifactStore slow = mock(ArtifactStore.class);
+        ArtifactStore fast = mock(ArtifactStore.class);
+        when(slow.getSize(ARTIFACT)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return 1L;
+        });
+        when(fast.getSize(ARTIFACT)).thenReturn(2L);
+
+        CompositeArtifactStore artifactStore = new CompositeArtifactStore(new ArtifactStore[] {slow, fast}, executor);
+
+        assertEquals(1L, artifactStore.getSize(ARTIFACT));
+    }
+
+    @Test
+    void parallelLookupSkipsStoresWithoutArtifact() throws Exception {
+        ArtifactStore store1 = mock(ArtifactStore.class);
+        ArtifactStore store2 = mock(ArtifactStore.class);
+        when(store1.getSha1Checksum(ARTIFACT)).thenThrow(new ArtifactNotFoundException(ARTIFACT));
+        when(store2.getSha1Checksum(ARTIFACT)).thenReturn("sha1");
+
+        CompositeArtifactStore artifactStore =
+                new CompositeArtifactStore(new ArtifactStore[] {store1, store2}, executor);
+
+        assertEquals("sha1", artifactStore.getSha1Checksum(ARTIFACT));
+    }
+
+    @Test
+    void parallelLookupOfMissingArtifact() throws Exception {
+        ArtifactStore store1 = mock(ArtifactStore.class);
+        ArtifactStore store2 = mock(ArtifactStore.class);
+        when(store1.getLastModified(ARTIFACT)).thenThrow(new ArtifactNotFoundException(ARTIFACT));
+        when(store2.getLastModified(ARTIFACT)).thenThrow(new ArtifactNotFoundException(ARTIFACT));
+
+        CompositeArtifactStore artifactStore =
+                new CompositeArtifactStore(new ArtifactStore[] {store1, store2}, executor);
+
+        assertThrows(ArtifactNotFoundException.class, () -> artifactStore.getLastModified(ARTIFACT));
+    }
+
+    @Test
+    void parallelLookupClosesLosingStreams() throws Exception {
+        CountDownLatch loserOpened = new CountDownLatch(1);
+        CountDownLatch loserClosed = new CountDownLatch(1);
+        InputStream winner = new ByteArrayInputStream(new byte[1]);
+        InputStream loser = new ByteArrayInputStream(new byte[2]) {
+            @Override
+            public void close() {
+                loserClosed.countDown();
+            }
+        };
+        ArtifactStore store1 = mock(ArtifactStore.class);
+        ArtifactStore store2 = mock(ArtifactStore.class);
+        when(store1.get(ARTIFACT)).thenAnswer(invocation -> {
+            assertTrue(loserOpened.await(10, TimeUnit.SECONDS));
+            return winner;
+        });
+        when(store2.get(ARTIFACT)).thenAnswer(invocation -> {
+            loserOpened.countDown();
+            return loser;
+        });
+
+        CompositeArtifactStore artifactStore =
+                new CompositeArtifactStore(new ArtifactStore[] {store1, store2}, executor);
+
+        assertSame(winner, artifactStore.get(ARTIFACT));
+        // the losing lookup may still be completing, it closes its stream once it does
+        assertTrue(loserClosed.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void storesWithoutArtifactAreNotAskedAgain() throws Exception {
+        ArtifactStore store1 = mock(ArtifactStore.class);
+        ArtifactStore store2 = mock(ArtifactStore.class);
+        when(store1.getSize(ARTIFACT)).thenThrow(new ArtifactNotFoundException(ARTIFACT));
+        when(store2.getSize(ARTIFACT)).thenReturn(2L);
+        when(store2.getLastModified(ARTIFACT)).thenReturn(3L);
+
+        CompositeArtifactStore artifactStore = new CompositeArtifactStore(
+                new ArtifactStore[] {store1, store2}, null, CompositeArtifactStore.DEFAULT_NEGATIVE_CACHE_TTL);
+
+        assertEquals(2L, artifactStore.getSize(ARTIFACT));
+        assertEquals(2L, artifactStore.getSize(ARTIFACT));
+        assertEquals(3L, artifactStore.getLastModified(ARTIFACT));
+        verify(store1, times(1)).getSize(ARTIFACT);
+        verify(store1, never()).getLastModified(ARTIFACT);
+    }
+
+    @Test
+    void negativeCacheCanBeDisabled() throws Exception {
+        ArtifactStore store1 = mock(ArtifactStore.class);
+        ArtifactStore store2 = mock(ArtifactStore.class);
+        when(store1.getSize(ARTIFACT)).thenThrow(new ArtifactNotFoundException(ARTIFACT));
+        when(store2.getSize(ARTIFACT)).thenReturn(2L);
+
+        CompositeArtifactStore artifactStore =
+                new CompositeArtifactStore(new ArtifactStore[] {store1, store2}, executor, 0);
+
+        assertEquals(2L, artifactStore.getSize(ARTIFACT));
+        assertEquals(2L, artifactStore.getSize(ARTIFACT));
+        verify(store1, times(2)).getSize(ARTIFACT);
+    }
+
+    @Test
+    void negativeCacheIsOffByDefault() throws Exception {
+        ArtifactStore store1 = mock(ArtifactStore.class);
+        ArtifactStore store2 = mock(ArtifactStore.class);
+        when(store1.getSize(ARTIFACT)).thenThrow(new ArtifactNotFoundException(ARTIFACT));
+        when(store2.getSize(ARTIFACT)).thenReturn(2L);
+
+        CompositeArtifactStore artifactStore = new CompositeArtifactStore(new ArtifactStore[] {store1, store2});
+
+        assertEquals(2L, artifactStore.getSize(ARTIFACT));
+        assertEquals(2L, artifactStore.getSize(ARTIFACT));
+        verify(store1, times(2)).getSize(ARTIFACT);
+    }
+
     private Versioning aVersioning(String timeStampDate, String timeStampTime, int buildNr) {
 
         Versioning versioning = new Versioning();
@@ -2,26 +2,38 @@ package org.codehaus.mojo.mrm.impl.maven;
 
 import javax.inject.Inject;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.InputStream;
 import java.lang.module.ModuleDescriptor;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
+import java.util.stream.Stream;
 import java.util.zip.GZIPInputStream;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.maven.archetype.catalog.Archetype;
 import org.apache.maven.archetype.catalog.ArchetypeCatalog;
@@ -35,6 +47,7 @@ import org.codehaus.plexus.testing.PlexusTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -42,6 +55,10 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @PlexusTest
 class MockArtifactStoreTest extends AbstractTestSupport {
@@ -372,6 +389,231 @@ class MockArtifactStoreTest extends AbstractTestSupport {
         assertTrue(exception.getMessage().contains("Could not find archiver for directory"));
     }
 
+    @Test
+    void parallelScanFindsTheSameArtifacts() throws Exception {
+        Path root = temporaryFolder.resolve("repository");
+        for (int i = 0; i < 20; i++) {
+            Path dir = Files.createDirectories(root.resolve("localhost/a" + i + "/1.0"));
+            Files.write(
+                    dir.resolve("a" + i + "-1.0.pom"),
+                    ("<project><modelVersion>4.0.0</modelVersion><groupId>localhost</groupId><artifactId>a" + i
+                                    + "</artifactId><version>1.0</version></project>")
+                            .getBytes(StandardCharsets.UTF_8));
+            Files.write(dir.resolve("a" + i + "-1.0-sources.jar"), ("sources " + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        MockArtifactStore sequential =
+                new MockArtifactStore(archiverManager, root.toFile(), new MockArtifactStore.Options());
+        MockArtifactStore parallel = new MockArtifactStore(
+                archiverManager, root.toFile(), new MockArtifactStore.Options().setScanThreads(4));
+
+        assertEquals(20, parallel.getArtifactIds("localhost").size());
+        assertEquals(sequential.getArtifactIds("localhost"), parallel.getArtifactIds("localhost"));
+        for (String artifactId : sequential.getArtifactIds("localhost")) {
+            Set<Artifact> artifacts = sequential.getArtifacts("localhost", artifactId, "1.0");
+            assertEquals(3, artifacts.size());
+            assertEquals(artifacts, parallel.getArtifacts("localhost", artifactId, "1.0"));
+            for (Artifact artifact : artifacts) {
+                assertEquals(sequential.getSha1Checksum(artifact), parallel.getSha1Checksum(artifact));
+            }
+        }
+    }
+
+    @Test
+    void parallelScanReportsUnknownArchiver() throws Exception {
+        Path root = temporaryFolder.resolve("repository");
+        FileUtils.copyDirectory(getResourceAsFile("/unknown-archiver"), root.toFile());
+        FileUtils.copyDirectory(getResourceAsFile("/empty-jar"), root.toFile());
+
+        IllegalStateException exception = assertThrowsExactly(
+                IllegalStateException.class,
+                () -> new MockArtifactStore(
+                        archiverManager, root.toFile(), new MockArtifactStore.Options().setScanThreads(4)));
+        assertTrue(exception.getMessage().contains("Could not find archiver for directory"));
+    }
+
+    @Test
+    void directoriesAreArchivedInBackground() throws Exception {
+        Path root = temporaryFolder.resolve("repository");
+        // leave out archives other tests built next to the directories
+        FileUtils.copyDirectory(
+                getResourceAsFile("/mrm-15"),
+                root.toFile(),
+                file -> !file.getName().startsWith("_"));
+        FileUtils.copyDirectory(
+                getResourceAsFile("/mrm-xx"),
+                root.toFile(),
+                file -> !file.getName().startsWith("_"));
+
+        MockArtifactStore artifactStore = new MockArtifactStore(
+                archiverManager, root.toFile(), new MockArtifactStore.Options().setArchiveThreads(2));
+
+        // nothing was requested yet, so only the background threads can build the archive
+        Path archive = root.resolve("_mrm-15-1.0.jar");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!Files.exists(archive) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(Files.exists(archive));
+
+        Artifact mainArtifact = new Artifact("localhost", "mrm-15", "1.0", "jar");
+        assertEquals(archive, artifactStore.getPath(mainArtifact));
+        try (JarFile jar = new JarFile(archive.toFile())) {
+            assertNotNull(jar.getJarEntry("README.txt"));
+        }
+        assertEquals(Files.size(archive), artifactStore.getSize(mainArtifact));
+
+        Artifact classifiedArtifact = new Artifact("localhost", "mrm-xx", "1.0", "javadoc-resources", "jar");
+        try (InputStream inputStream = artifactStore.get(classifiedArtifact)) {
+            assertEquals(DigestUtils.sha1Hex(inputStream), artifactStore.getSha1Checksum(classifiedArtifact));
+        }
+    }
+
+    @Test
+    void archivesAreReusedFromCache() throws Exception {
+        Path root = temporaryFolder.resolve("repository");
+        Path cache = temporaryFolder.resolve("cache");
+        // leave out archives other tests built next to the directory
+        FileUtils.copyDirectory(
+                getResourceAsFile("/mrm-15"),
+                root.toFile(),
+                file -> !file.getName().startsWith("_"));
+        Artifact mainArtifact = new Artifact("localhost", "mrm-15", "1.0", "jar");
+
+        MockArtifactStore.Options options = new MockArtifactStore.Options().setArchiveCacheDirectory(cache.toFile());
+        MockArtifactStore artifactStore = new MockArtifactStore(archiverManager, root.toFile(), options);
+        Path archive = artifactStore.getPath(mainArtifact);
+        String sha1 = artifactStore.getSha1Checksum(mainArtifact);
+        assertEquals(cache, archive.getParent());
+        assertFalse(Files.exists(root.resolve("_mrm-15-1.0.jar")));
+        try (InputStream inputStream = Files.newInputStream(archive)) {
+            assertEquals(DigestUtils.sha1Hex(inputStream), sha1);
+        }
+
+        Files.write(archive.resolveSibling(archive.getFileName() + ".sha1"), "cached".getBytes(StandardCharsets.UTF_8));
+        artifactStore = new MockArtifactStore(archiverManager, root.toFile(), options);
+        assertEquals(archive, artifactStore.getPath(mainArtifact));
+        assertEquals("cached", artifactStore.getSha1Checksum(mainArtifact));
+
+        Files.write(root.resolve("mrm-15-1.0.jar/added.txt"), "added".getBytes(StandardCharsets.UTF_8));
+        artifactStore = new MockArtifactStore(archiverManager, root.toFile(), options);
+        Path rebuilt = artifactStore.getPath(mainArtifact);
+        assertFalse(archive.equals(rebuilt));
+        try (JarFile jar = new JarFile(rebuilt.toFile())) {
+            assertNotNull(jar.getJarEntry("added.txt"));
+        }
+    }
+
+    @Test
+    void directoriesAreStreamed() throws Exception {
+        Path root = temporaryFolder.resolve("repository");
+        FileUtils.copyDirectory(
+                getResourceAsFile("/mrm-15"),
+                root.toFile(),
+                file -> !file.getName().startsWith("_"));
+        Files.write(
+                root.resolve("mrm-15-1.0.jar/.mrm-transform.properties"),
+                "README.txt.targetName=README.md".getBytes(StandardCharsets.UTF_8));
+
+        MockArtifactStore artifactStore = new MockArtifactStore(
+                archiverManager,
+                root.toFile(),
+                new MockArtifactStore.Options()
+                        .setTransformDirectiveSourceFactory(new MetadataTransformDirectiveFactory())
+                        .setStreamArchives(true));
+
+        Artifact mainArtifact = new Artifact("localhost", "mrm-15", "1.0", "jar");
+        assertNull(artifactStore.getPath(mainArtifact));
+        byte[] first;
+        try (InputStream inputStream = artifactStore.get(mainArtifact)) {
+            first = IOUtils.toByteArray(inputStream);
+        }
+        byte[] second;
+        try (InputStream inputStream = artifactStore.get(mainArtifact)) {
+            second = IOUtils.toByteArray(inputStream);
+        }
+        assertArrayEquals(first, second);
+        assertEquals(first.length, artifactStore.getSize(mainArtifact));
+        assertEquals(DigestUtils.sha1Hex(first), artifactStore.getSha1Checksum(mainArtifact));
+        try (Stream<Path> files = Files.list(root)) {
+            assertFalse(files.anyMatch(file -> file.getFileName().toString().startsWith("_")));
+        }
+
+        try (JarInputStream jar = new JarInputStream(new ByteArrayInputStream(first))) {
+            assertNotNull(jar.getManifest());
+            List<String> names = new ArrayList<>();
+            for (JarEntry entry = jar.getNextJarEntry(); entry != null; entry = jar.getNextJarEntry()) {
+                names.add(entry.getName());
+            }
+            assertTrue(names.contains("README.md"));
+            assertFalse(names.contains("README.txt"));
+        }
+    }
+
+    @Test
+    void streamedArchiveMatchesItsMeasure() throws Exception {
+        Path root = temporaryFolder.resolve("repository");
+        FileUtils.copyDirectory(
+                getResourceAsFile("/mrm-15"),
+                root.toFile(),
+                file -> !file.getName().startsWith("_"));
+        MockArtifactStore artifactStore = new MockArtifactStore(
+                archiverManager, root.toFile(), new MockArtifactStore.Options().setStreamArchives(true));
+        Artifact mainArtifact = new Artifact("localhost", "mrm-15", "1.0", "jar");
+
+        long size = artifactStore.getSize(mainArtifact);
+        String sha1 = artifactStore.getSha1Checksum(mainArtifact);
+        Path directory = root.resolve("mrm-15-1.0.jar");
+        Files.write(directory.resolve("added.txt"), "added".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(directory, FileTime.fromMillis(0L));
+
+        byte[] content;
+        try (InputStream inputStream = artifactStore.get(mainArtifact)) {
+            content = IOUtils.toByteArray(inputStream);
+        }
+        assertEquals(size, content.length);
+        assertEquals(sha1, DigestUtils.sha1Hex(content));
+    }
+
+    @Test
+    void concurrentFirstRequestsArchiveOnce() throws Exception {
+        Path root = temporaryFolder.resolve("repository");
+        FileUtils.copyDirectory(
+                getResourceAsFile("/mrm-15"),
+                root.toFile(),
+                file -> !file.getName().startsWith("_"));
+        ArchiverManager countingArchiverManager = spy(archiverManager);
+        MockArtifactStore artifactStore = new MockArtifactStore(countingArchiverManager, root.toFile(), true);
+        Artifact mainArtifact = new Artifact("localhost", "mrm-15", "1.0", "jar");
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> checksums = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                checksums.add(executor.submit(() -> {
+                    start.await();
+                    return artifactStore.getSha1Checksum(mainArtifact) + '/' + artifactStore.getSize(mainArtifact);
+                }));
+            }
+            start.countDown();
+
+            Path archive = artifactStore.getPath(mainArtifact);
+            String expected;
+            try (InputStream inputStream = Files.newInputStream(archive)) {
+                expected = DigestUtils.sha1Hex(inputStream) + '/' + Files.size(archive);
+            }
+            for (Future<String> checksum : checksums) {
+                assertEquals(expected, checksum.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // once to check the directory can be archived, once to archive it
+        verify(countingArchiverManager, times(2)).getArchiver(any(File.class));
+    }
+
     @Test
     void directoryWithClassifierContent() throws Exception {
         MockArtifactStore artifactStore = new MockArtifactStore(archiverManager, getResourceAsFile("/mrm-xx"));
@@ -402,6 +644,23 @@ class MockArtifactStoreTest extends AbstractTestSupport {
         assertEquals(sha1Jar1, sha1Jar2);
     }
 
+    @Test
+    void fileChecksumIsComputedWhenFirstAskedFor() throws Exception {
+        Path root = temporaryFolder.resolve("repository");
+        FileUtils.copyDirectory(getResourceAsFile("/mmockrm-7"), root.toFile());
+        Path site = root.resolve("mmockrm-7-1.0-site.xml");
+
+        MockArtifactStore artifactStore = new MockArtifactStore(archiverManager, root.toFile());
+        Files.write(site, "<site/>".getBytes(StandardCharsets.UTF_8));
+
+        Artifact siteArtifact = new Artifact("localhost", "mmockrm-7", "1.0", "site", "xml");
+        String sha1 = artifactStore.getSha1Checksum(siteArtifact);
+        assertEquals(DigestUtils.sha1Hex("<site/>"), sha1);
+
+        Files.write(site, "<site></site>".getBytes(StandardCharsets.UTF_8));
+        assertEquals(sha1, artifactStore.getSha1Checksum(siteArtifact));
+    }
+
     @Test
     void groupMetaDataShouldNotExistForNoPlugins() throws Exception {
         MockArtifactStore artifactStore = new MockArtifactStore(archiverManager, getResourceAsFile("/empty-jar"));
@@ -437,6 +696,42 @@ class MockArtifactStoreTest extends AbstractTestSupport {
                 "Plugin 2 not found in metadata");
     }
 
+    @Test
+    void metadataIsReadConcurrently() throws Exception {
+        MockArtifactStore artifactStore =
+                new MockArtifactStore(archiverManager, getResourceAsFile("/empty-plugin-jar"));
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> plugins = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                plugins.add(executor.submit(() -> {
+                    start.await();
+                    int count = 0;
+                    for (int j = 0; j < 50; j++) {
+                        artifactStore.getMetadataLastModified("localhost");
+                        count = artifactStore
+                                .getMetadata("localhost")
+                                .getPlugins()
+                                .size();
+                    }
+                    return count;
+                }));
+            }
+            // readers must not wait for a writer holding the store, as they did when the reads were synchronized
+            synchronized (artifactStore) {
+                start.countDown();
+                for (Future<Integer> count : plugins) {
+                    assertEquals(2, count.get(10, TimeUnit.SECONDS));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     void artifactMetaDataShouldExist() throws Exception {
         MockArtifactStore artifactStore = new MockArtifactStore(archiverManager, getResourceAsFile("/empty-jar"));
@@ -3,21 +3,36 @@ package org.codehaus.mojo.mrm.servlet;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import org.apache.commons.io.input.NullInputStream;
+import org.codehaus.mojo.mrm.api.maven.ArtifactNotFoundException;
 import org.codehaus.mojo.mrm.api.maven.ArtifactStore;
 import org.codehaus.mojo.mrm.impl.maven.ArtifactStoreFileSystem;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -46,12 +61,13 @@ class FileSystemServletTest {
 
     @BeforeEach
     void setup() throws Exception {
-        when(servletConfig.getServletContext()).thenReturn(servletContext);
+        lenient().when(servletConfig.getServletContext()).thenReturn(servletContext);
 
         when(request.getPathInfo()).thenReturn("/commons/commons/1.0/commons-1.0.pom");
-        when(response.getOutputStream()).thenReturn(servletOutputStream);
+        lenient().when(request.getHeader(anyString())).thenReturn(null);
+        lenient().when(response.getOutputStream()).thenReturn(servletOutputStream);
 
-        when(store.get(any())).thenReturn(new NullInputStream());
+        lenient().when(store.get(any())).thenReturn(new NullInputStream());
 
         servlet = new FileSystemServlet(new ArtifactStoreFileSystem(store));
         servlet.init(servletConfig);
@@ -74,4 +90,204 @@ class FileSystemServletTest {
 
         verify(response, never()).addHeader(eq("x-checksum-sha1"), any());
     }
+
+    @Test
+    void eTagShouldBeDerivedFromChecksum() throws Exception {
+        when(store.getSha1Checksum(any())).thenReturn("1234567890abcdef1234567890abcdef12345678");
+
+        servlet.doGet(request, response);
+
+        verify(response).addHeader("ETag", "\"1234567890abcdef1234567890abcdef12345678\"");
+    }
+
+    @Test
+    void matchingETagShouldReturnNotModified() throws Exception {
+        when(store.getSha1Checksum(any())).thenReturn("1234567890abcdef1234567890abcdef12345678");
+        when(request.getHeader("If-None-Match")).thenReturn("\"1234567890abcdef1234567890abcdef12345678\"");
+
+        servlet.doGet(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(store, never()).get(any());
+        verify(response, never()).getOutputStream();
+    }
+
+    @Test
+    void differentETagShouldReturnContent() throws Exception {
+        when(store.getSha1Checksum(any())).thenReturn("1234567890abcdef1234567890abcdef12345678");
+        when(request.getHeader("If-None-Match")).thenReturn("\"0000000000000000000000000000000000000000\"");
+
+        servlet.doGet(request, response);
+
+        verify(response, never()).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(store, times(1)).get(any());
+    }
+
+    @Test
+    void ifModifiedSinceShouldReturnNotModified() throws Exception {
+        when(store.getLastModified(any())).thenReturn(1_600_000_000_123L);
+        when(request.getHeader("If-Modified-Since")).thenReturn("Sun, 13 Sep 2020 12:26:40 GMT");
+        when(request.getDateHeader("If-Modified-Since")).thenReturn(1_600_000_000_000L);
+
+        servlet.doGet(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(store, never()).get(any());
+    }
+
+    @Test
+    void olderIfModifiedSinceShouldReturnContent() throws Exception {
+        when(store.getLastModified(any())).thenReturn(1_600_000_000_123L);
+        when(request.getHeader("If-Modified-Since")).thenReturn("Sun, 13 Sep 2020 12:26:39 GMT");
+        when(request.getDateHeader("If-Modified-Since")).thenReturn(1_599_999_999_000L);
+
+        servlet.doGet(request, response);
+
+        verify(response, never()).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(store, times(1)).get(any());
+    }
+
+    @Test
+    void singleRangeShouldReturnPartialContent() throws Exception {
+        ByteArrayServletOutputStream output = givenContent("0123456789");
+        when(request.getHeader("Range")).thenReturn("bytes=2-5");
+
+        servlet.doGet(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        verify(response).setHeader("Content-Range", "bytes 2-5/10");
+        verify(response).setContentLengthLong(4);
+        assertEquals("2345", output.toString());
+    }
+
+    @Test
+    void suffixRangeShouldReturnLastBytes() throws Exception {
+        ByteArrayServletOutputStream output = givenContent("0123456789");
+        when(request.getHeader("Range")).thenReturn("bytes=-3");
+
+        servlet.doGet(request, response);
+
+        verify(response).setHeader("Content-Range", "bytes 7-9/10");
+        assertEquals("789", output.toString());
+    }
+
+    @Test
+    void multipleRangesShouldReturnMultipartContent() throws Exception {
+        ByteArrayServletOutputStream output = givenContent("0123456789");
+        when(request.getHeader("Range")).thenReturn("bytes=0-1, 8-");
+
+        servlet.doGet(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        verify(response).setContentType(startsWith("multipart/byteranges; boundary="));
+        String body = output.toString();
+        assertTrue(body.contains("Content-Range: bytes 0-1/10\r\n\r\n01\r\n"));
+        assertTrue(body.contains("Content-Range: bytes 8-9/10\r\n\r\n89\r\n"));
+    }
+
+    @Test
+    void unsatisfiableRangeShouldReturnError() throws Exception {
+        when(store.getSize(any())).thenReturn(10L);
+        when(request.getHeader("Range")).thenReturn("bytes=10-");
+
+        servlet.doGet(request, response);
+
+        verify(response).setHeader("Content-Range", "bytes */10");
+        verify(response).sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+    }
+
+    @Test
+    void invalidRangeShouldBeIgnored() throws Exception {
+        ByteArrayServletOutputStream output = givenContent("0123456789");
+        when(request.getHeader("Range")).thenReturn("bytes=5-2");
+
+        servlet.doGet(request, response);
+
+        verify(response, never()).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        assertEquals("0123456789", output.toString());
+    }
+
+    @Test
+    void staleIfRangeShouldReturnFullContent() throws Exception {
+        ByteArrayServletOutputStream output = givenContent("0123456789");
+        when(store.getSha1Checksum(any())).thenReturn("1234567890abcdef1234567890abcdef12345678");
+        when(request.getHeader("Range")).thenReturn("bytes=2-5");
+        when(request.getHeader("If-Range")).thenReturn("\"0000000000000000000000000000000000000000\"");
+
+        servlet.doGet(request, response);
+
+        verify(response, never()).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        assertEquals("0123456789", output.toString());
+    }
+
+    @Test
+    void fileBackedEntryShouldBeServedFromFile(@TempDir Path tempDir) throws Exception {
+        Path file = Files.write(tempDir.resolve("commons-1.0.pom"), "0123456789".getBytes(StandardCharsets.US_ASCII));
+        when(store.getSize(any())).thenReturn(10L);
+        when(store.getPath(any())).thenReturn(file);
+        ByteArrayServletOutputStream output = new ByteArrayServletOutputStream();
+        when(response.getOutputStream()).thenReturn(output);
+        when(request.getHeader("Range")).thenReturn("bytes=3-");
+
+        servlet.doGet(request, response);
+
+        verify(response).setHeader("Content-Range", "bytes 3-9/10");
+        verify(store, never()).get(any());
+        assertEquals("3456789", output.toString());
+    }
+
+    @Test
+    void headShouldNotOpenContent() throws Exception {
+        when(store.getSize(any())).thenReturn(10L);
+        when(store.getSha1Checksum(any())).thenReturn("1234567890abcdef1234567890abcdef12345678");
+
+        servlet.doHead(request, response);
+
+        verify(response).setContentLengthLong(10);
+        verify(response).addHeader("x-checksum-sha1", "1234567890abcdef1234567890abcdef12345678");
+        verify(store, never()).get(any());
+        verify(store, never()).getPath(any());
+        verify(response, never()).getOutputStream();
+    }
+
+    @Test
+    void headOfMissingEntryShouldReturnNotFound() throws Exception {
+        when(store.getSize(any())).thenThrow(new ArtifactNotFoundException("missing", null));
+
+        servlet.doHead(request, response);
+
+        verify(response).sendError(HttpServletResponse.SC_NOT_FOUND);
+    }
+
+    private ByteArrayServletOutputStream givenContent(String content) throws Exception {
+        byte[] bytes = content.getBytes(StandardCharsets.US_ASCII);
+        when(store.getSize(any())).thenReturn((long) bytes.length);
+        when(store.get(any())).thenAnswer(invocation -> new ByteArrayInputStream(bytes));
+        ByteArrayServletOutputStream output = new ByteArrayServletOutputStream();
+        when(response.getOutputStream()).thenReturn(output);
+        return output;
+    }
+
+    private static class ByteArrayServletOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        @Override
+        public void write(int b) {
+            bytes.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {}
+
+        @Override
+        public String toString() {
+            return new String(bytes.toByteArray(), StandardCharsets.US_ASCII);
+        }
+    }
 }